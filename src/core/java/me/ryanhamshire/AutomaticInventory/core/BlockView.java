@@ -0,0 +1,16 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+//what the chest searches need to know about each block of an area, with coordinates relative to the area's corner.
+//blocks are described by flags rather than by type, so the searches don't depend on any server's block types
+public interface BlockView {
+    //a block which can be deposited into
+    int CONTAINER = 1;
+    //a block the search can pass through
+    int PASSABLE = 2;
+    //a block which stops a container below it from opening
+    int LID_BLOCKING = 4;
+    //returned for blocks whose type isn't known, which are neither searched through nor reported
+    int UNKNOWN = -1;
+
+    int getFlags(int x, int y, int z);
+}
@@ -0,0 +1,190 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+import java.util.Arrays;
+
+//breadth-first search for reachable chests which doesn't allocate while searching once warmed up.
+//cells are packed into ints (x | z << bits | y << 2 * bits), so the queue and the results are flat primitive arrays.
+//the visited set is split into 16x16x16 tiles which are only allocated once the search reaches them,
+//so memory follows what a search actually visits rather than the size of the area.
+//results are ordered by distance and then by packed cell, which ParallelChestFloodFill reproduces exactly
+public class ChestFloodFill implements ChestSearch {
+    //scan threads keep their search buffers between searches
+    private static final ThreadLocal<ChestFloodFill> threadInstance = new ThreadLocal<>();
+
+    private final int width;
+    private final int height;
+    private final int maxVisited;
+    private final int xzBits;
+    private final int xzMask;
+    private final int tilesWide;
+    private int[] queue = new int[1024];
+    private final long[][] visitedTiles;
+    //which search last used each tile, so tiles are only cleared when a search reaches them
+    private final int[] tileSearches;
+    private int searchNumber = 0;
+    private int visitedCount = 0;
+    //distance << 32 | cell
+    private long[] found = new long[64];
+    private int foundCount = 0;
+
+    public ChestFloodFill(int width, int height) {
+        this(width, height, Integer.MAX_VALUE);
+    }
+
+    //a search gives up on unvisited cells once it has visited maxVisited of them
+    public ChestFloodFill(int width, int height, int maxVisited) {
+        this.width = width;
+        this.height = height;
+        this.maxVisited = maxVisited;
+        this.xzBits = 32 - Integer.numberOfLeadingZeros(Math.max(width - 1, 1));
+        this.xzMask = (1 << this.xzBits) - 1;
+        this.tilesWide = (width + 15) >> 4;
+        this.visitedTiles = new long[this.tilesWide * this.tilesWide * ((height + 15) >> 4)][];
+        this.tileSearches = new int[this.visitedTiles.length];
+    }
+
+    public static ChestFloodFill forCurrentThread(int width, int height, int maxVisited) {
+        ChestFloodFill search = threadInstance.get();
+        if (search == null || search.width != width || search.height != height || search.maxVisited != maxVisited) {
+            search = new ChestFloodFill(width, height, maxVisited);
+            threadInstance.set(search);
+        }
+
+        return search;
+    }
+
+    //returns the number of chests found, which can then be read back with getFoundX/Y/Z
+    public int search(BlockView blocks, int startX, int startY, int startZ) {
+        return this.search(blocks, startX, startY, startZ, Integer.MAX_VALUE);
+    }
+
+    //stops at the end of the distance where maxFound chests have been found
+    @Override
+    public int search(BlockView blocks, int startX, int startY, int startZ, int maxFound) {
+        this.reset();
+        if (startX < 0 || startX >= this.width || startZ < 0 || startZ >= this.width || startY < 0 || startY >= this.height) {
+            return 0;
+        }
+
+        int row = 1 << this.xzBits;
+        int layer = 1 << (2 * this.xzBits);
+        int head = 0;
+        int tail = 0;
+        int start = startX | (startZ << this.xzBits) | (startY << (2 * this.xzBits));
+        this.markVisited(start);
+        this.queue[tail++] = start;
+        int distance = 0;
+        int distanceEnd = tail;
+        while (head != tail) {
+            if (head == distanceEnd) {
+                if (this.foundCount >= maxFound) break;
+
+                distance++;
+                distanceEnd = tail;
+            }
+
+            int current = this.queue[head++ & (this.queue.length - 1)];
+            int x = current & this.xzMask;
+            int z = (current >>> this.xzBits) & this.xzMask;
+            int y = current >>> (2 * this.xzBits);
+
+            int flags = blocks.getFlags(x, y, z);
+            if (flags == BlockView.UNKNOWN) continue;
+            if ((flags & BlockView.CONTAINER) != 0) {
+                int overFlags = y + 1 < this.height ? blocks.getFlags(x, y + 1, z) : BlockView.UNKNOWN;
+                if (overFlags == BlockView.UNKNOWN || (overFlags & BlockView.LID_BLOCKING) == 0) {
+                    this.addFound(distance, current);
+                }
+            }
+
+            if ((flags & BlockView.PASSABLE) == 0) continue;
+
+            if (x + 1 < this.width) tail = this.visit(current + 1, head, tail);
+            if (x > 0) tail = this.visit(current - 1, head, tail);
+            if (y + 1 < this.height) tail = this.visit(current + layer, head, tail);
+            if (y > 0) tail = this.visit(current - layer, head, tail);
+            if (z + 1 < this.width) tail = this.visit(current + row, head, tail);
+            if (z > 0) tail = this.visit(current - row, head, tail);
+        }
+
+        Arrays.sort(this.found, 0, this.foundCount);
+        return this.foundCount;
+    }
+
+    @Override
+    public int getFoundX(int index) {
+        return (int) this.found[index] & this.xzMask;
+    }
+
+    @Override
+    public int getFoundY(int index) {
+        return (int) this.found[index] >>> (2 * this.xzBits);
+    }
+
+    @Override
+    public int getFoundZ(int index) {
+        return ((int) this.found[index] >>> this.xzBits) & this.xzMask;
+    }
+
+    private int visit(int cell, int head, int tail) {
+        if (this.visitedCount >= this.maxVisited) return tail;
+        if (!this.markVisited(cell)) return tail;
+
+        if (tail - head == this.queue.length) this.growQueue(head, tail);
+        this.queue[tail & (this.queue.length - 1)] = cell;
+        return tail + 1;
+    }
+
+    //returns false when the cell was already visited
+    private boolean markVisited(int cell) {
+        int x = cell & this.xzMask;
+        int z = (cell >>> this.xzBits) & this.xzMask;
+        int y = cell >>> (2 * this.xzBits);
+        int tileIndex = (x >> 4) + ((z >> 4) + (y >> 4) * this.tilesWide) * this.tilesWide;
+        long[] tile = this.visitedTiles[tileIndex];
+        if (tile == null) {
+            tile = new long[64];
+            this.visitedTiles[tileIndex] = tile;
+            this.tileSearches[tileIndex] = this.searchNumber;
+        } else if (this.tileSearches[tileIndex] != this.searchNumber) {
+            //left over from an earlier search, so clear it the first time this search reaches it
+            Arrays.fill(tile, 0L);
+            this.tileSearches[tileIndex] = this.searchNumber;
+        }
+
+        int bitIndex = (x & 15) | ((z & 15) << 4) | ((y & 15) << 8);
+        long bit = 1L << bitIndex;
+        int word = bitIndex >>> 6;
+        if ((tile[word] & bit) != 0) return false;
+
+        tile[word] |= bit;
+        this.visitedCount++;
+        return true;
+    }
+
+    private void reset() {
+        this.searchNumber++;
+        this.visitedCount = 0;
+        this.foundCount = 0;
+    }
+
+    //doubles the ring buffer, keeping every queued cell at its index modulo the new length
+    private void growQueue(int head, int tail) {
+        int oldMask = this.queue.length - 1;
+        int[] grown = new int[this.queue.length * 2];
+        int newMask = grown.length - 1;
+        for (int i = head; i != tail; i++) {
+            grown[i & newMask] = this.queue[i & oldMask];
+        }
+        this.queue = grown;
+    }
+
+    private void addFound(int distance, int cell) {
+        //only grows while warming up, after that the array is reused as is
+        if (this.foundCount == this.found.length) {
+            this.found = Arrays.copyOf(this.found, this.found.length * 2);
+        }
+
+        this.found[this.foundCount++] = ((long) distance << 32) | cell;
+    }
+}
@@ -0,0 +1,14 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+//a search for reachable chests within an area, returning their positions relative to the area's corner
+public interface ChestSearch {
+    //returns the number of chests found, which can then be read back with getFoundX/Y/Z.
+    //may stop once maxFound chests have been found
+    int search(BlockView blocks, int startX, int startY, int startZ, int maxFound);
+
+    int getFoundX(int index);
+
+    int getFoundY(int index);
+
+    int getFoundZ(int index);
+}
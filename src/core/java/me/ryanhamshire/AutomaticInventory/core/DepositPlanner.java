@@ -0,0 +1,130 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+//works out what depositMatching would move into each destination in turn, placing items the way Inventory.addItem does.
+//only reads slot views, so it can run off the main thread
+public class DepositPlanner {
+    //plans moving matching stacks from source slots sourceFrom up into each destination, skipping the excluded type ids
+    public static DepositTransferPlan plan(SlotView source, int sourceFrom, List<? extends SlotView> destinations, BitSet excludedTypeIds) {
+        int[] sourceAmounts = new int[source.size()];
+        for (int i = 0; i < sourceAmounts.length; i++) {
+            sourceAmounts[i] = source.getAmount(i);
+        }
+
+        int[][] transfers = new int[destinations.size()][];
+        int[][] sourceAmountsBefore = new int[destinations.size()][];
+        int[] totals = new int[destinations.size()];
+        TransferList transferList = new TransferList();
+        for (int d = 0; d < destinations.size(); d++) {
+            sourceAmountsBefore[d] = sourceAmounts.clone();
+            transferList.clear();
+            totals[d] = planDestination(source, sourceFrom, sourceAmounts, destinations.get(d), excludedTypeIds, transferList);
+            transfers[d] = transferList.toArray();
+        }
+
+        return new DepositTransferPlan(transfers, sourceAmountsBefore, totals);
+    }
+
+    //the same matching as depositMatching, updating sourceAmounts as items move
+    private static int planDestination(SlotView source, int sourceFrom, int[] sourceAmounts, SlotView destination, BitSet excludedTypeIds, TransferList transfers) {
+        //which view and slot holds a stack like the one each destination slot will hold, for similarity checks
+        int size = destination.size();
+        SlotView[] occupantViews = new SlotView[size];
+        int[] occupantSlots = new int[size];
+        int[] destinationAmounts = new int[size];
+        int[] destinationMaxAmounts = new int[size];
+        LongHashSet eligibleSignatures = new LongHashSet();
+        for (int i = 0; i < size; i++) {
+            int amount = destination.getAmount(i);
+            if (amount == 0) continue;
+
+            occupantViews[i] = destination;
+            occupantSlots[i] = i;
+            destinationAmounts[i] = amount;
+            destinationMaxAmounts[i] = destination.getMaxStackSize(i);
+            eligibleSignatures.add(ItemKeys.signature(destination, i));
+        }
+
+        int totalItems = 0;
+        for (int i = sourceFrom; i < sourceAmounts.length; i++) {
+            int sourceStackSize = sourceAmounts[i];
+            if (sourceStackSize == 0) continue;
+            if (excludedTypeIds.get(source.getTypeId(i))) continue;
+
+            long signature = ItemKeys.signature(source, i);
+            if (!eligibleSignatures.contains(signature)) continue;
+
+            int notMovedCount = addItem(source, i, sourceStackSize, occupantViews, occupantSlots, destinationAmounts, destinationMaxAmounts, transfers);
+            int movedCount = sourceStackSize - notMovedCount;
+            if (movedCount == 0) {
+                eligibleSignatures.remove(signature);
+            } else {
+                sourceAmounts[i] = notMovedCount;
+                totalItems += movedCount;
+            }
+        }
+
+        return totalItems;
+    }
+
+    //fills similar partial stacks first, then empty slots, like CraftInventory.addItem.  returns how many didn't fit
+    private static int addItem(SlotView source, int sourceSlot, int amount, SlotView[] occupantViews, int[] occupantSlots, int[] amounts, int[] maxAmounts, TransferList transfers) {
+        while (amount > 0) {
+            int slot = -1;
+            for (int i = 0; i < amounts.length; i++) {
+                if (amounts[i] > 0 && amounts[i] < maxAmounts[i] && occupantViews[i].isSimilar(occupantSlots[i], source, sourceSlot)) {
+                    slot = i;
+                    break;
+                }
+            }
+
+            int movedCount;
+            if (slot >= 0) {
+                movedCount = Math.min(maxAmounts[slot] - amounts[slot], amount);
+                amounts[slot] += movedCount;
+            } else {
+                for (int i = 0; i < amounts.length; i++) {
+                    if (amounts[i] == 0) {
+                        slot = i;
+                        break;
+                    }
+                }
+                if (slot == -1) break;
+
+                movedCount = Math.min(amount, 64);
+                occupantViews[slot] = source;
+                occupantSlots[slot] = sourceSlot;
+                amounts[slot] = movedCount;
+                maxAmounts[slot] = source.getMaxStackSize(sourceSlot);
+            }
+
+            transfers.add(sourceSlot, slot, movedCount);
+            amount -= movedCount;
+        }
+
+        return amount;
+    }
+
+    private static class TransferList {
+        private int[] values = new int[48];
+        private int size = 0;
+
+        void add(int sourceSlot, int destinationSlot, int amount) {
+            if (this.size + 3 > this.values.length) this.values = Arrays.copyOf(this.values, this.values.length * 2);
+            this.values[this.size++] = sourceSlot;
+            this.values[this.size++] = destinationSlot;
+            this.values[this.size++] = amount;
+        }
+
+        void clear() {
+            this.size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(this.values, this.size);
+        }
+    }
+}
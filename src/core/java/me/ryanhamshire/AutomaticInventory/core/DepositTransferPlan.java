@@ -0,0 +1,17 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+//the result of DepositPlanner, with one entry per destination in the order they were planned
+public class DepositTransferPlan {
+    //flattened (source slot, destination slot, amount) triples, to be applied in order
+    public final int[][] transfers;
+    //what the player's slots should hold just before each destination's transfers are applied
+    public final int[][] sourceAmountsBefore;
+    //items moved into each destination
+    public final int[] totals;
+
+    DepositTransferPlan(int[][] transfers, int[][] sourceAmountsBefore, int[] totals) {
+        this.transfers = transfers;
+        this.sourceAmountsBefore = sourceAmountsBefore;
+        this.totals = totals;
+    }
+}
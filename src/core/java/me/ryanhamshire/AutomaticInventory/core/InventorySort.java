@@ -0,0 +1,106 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+import java.util.Arrays;
+
+//sorts a range of slots by max stack size, then type, damage and amount, merging similar stacks along the way.
+//only works out where everything goes, leaving the writing to the caller
+public final class InventorySort {
+    //the stacks in sorted order: origins[i] is the slot whose stack belongs at the start of the range + i, holding amounts[i].
+    //slots from count on end up empty
+    public static final class Result {
+        public final int[] origins;
+        public final int[] amounts;
+        public final int count;
+        //the fingerprint the range will have once sorted
+        public final long fingerprint;
+
+        Result(int[] origins, int[] amounts, int count, long fingerprint) {
+            this.origins = origins;
+            this.amounts = amounts;
+            this.count = count;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private InventorySort() {
+    }
+
+    //a hash of the kinds and amounts in slots from (inclusive) to to (exclusive), for telling whether a range changed since it was sorted
+    public static long fingerprint(SlotView slots, int from, int to) {
+        long fingerprint = from;
+        for (int slot = from; slot < to; slot++) {
+            int amount = slots.getAmount(slot);
+            fingerprint = step(fingerprint, amount == 0 ? 0 : slotValue(kindOf(slots, slot), amount));
+        }
+
+        return fingerprint;
+    }
+
+    public static Result sort(SlotView slots, int from, int to) {
+        int rangeSize = Math.max(to - from, 0);
+
+        //read each stack once into a packed sort key
+        int[] positionSlots = new int[rangeSize];
+        long[] keys = new long[rangeSize];
+        long[] kinds = new long[rangeSize];
+        int count = 0;
+        for (int slot = from; slot < to; slot++) {
+            int amount = slots.getAmount(slot);
+            if (amount == 0) continue;
+
+            positionSlots[count] = slot;
+            keys[count] = ItemKeys.sortKey(slots.getTypeId(slot), slots.getMaxStackSize(slot), slots.getDamage(slot), amount, count);
+            kinds[count] = keys[count] >>> 16;
+            count++;
+        }
+
+        Arrays.sort(keys, 0, count);
+
+        //walk the sorted keys, topping up the previous stack whenever the next one is similar
+        int[] origins = new int[count];
+        int[] amounts = new int[count];
+        int sortedCount = 0;
+        long previousKind = -1;
+        for (int k = 0; k < count; k++) {
+            int position = (int) (keys[k] & 0xFF);
+            int slot = positionSlots[position];
+            long kind = kinds[position];
+            int amount = slots.getAmount(slot);
+            if (kind == previousKind) {
+                int previous = sortedCount - 1;
+                int maxStackSize = (int) (0xFF - (keys[k] >>> 48));
+                if (amounts[previous] < maxStackSize && slots.isSimilar(origins[previous], slots, slot)) {
+                    int moveCount = Math.min(maxStackSize - amounts[previous], amount);
+                    amounts[previous] += moveCount;
+                    amount -= moveCount;
+                    if (amount == 0) continue;
+                }
+            }
+
+            origins[sortedCount] = slot;
+            amounts[sortedCount] = amount;
+            sortedCount++;
+            previousKind = kind;
+        }
+
+        long fingerprint = from;
+        for (int i = 0; i < rangeSize; i++) {
+            fingerprint = step(fingerprint, i < sortedCount ? slotValue(kindOf(slots, origins[i]), amounts[i]) : 0);
+        }
+
+        return new Result(origins, amounts, sortedCount, fingerprint);
+    }
+
+    private static long kindOf(SlotView slots, int slot) {
+        return ItemKeys.sortKey(slots.getTypeId(slot), slots.getMaxStackSize(slot), slots.getDamage(slot), 0, 0) >>> 16;
+    }
+
+    //what a slot contributes to the fingerprint.  never zero, which stands for an empty slot
+    private static long slotValue(long kind, int amount) {
+        return (kind << 8) | Math.max(0, Math.min(amount, 0xFF));
+    }
+
+    private static long step(long fingerprint, long slotValue) {
+        return (fingerprint ^ slotValue) * 0x100000001B3L;
+    }
+}
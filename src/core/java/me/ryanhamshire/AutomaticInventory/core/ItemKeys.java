@@ -0,0 +1,33 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+//packs what the sorting and deposit algorithms compare about a stack into single longs
+public final class ItemKeys {
+    private ItemKeys() {
+    }
+
+    //the type id in the high 32 bits, and the damage value in the low 32 bits for items which stack (for tools it's wear, not a variant)
+    public static long signature(int typeId, int maxStackSize, int damage) {
+        long signature = (long) typeId << 32;
+        if (maxStackSize > 1) signature |= damage & 0xFFFFFFFFL;
+        return signature;
+    }
+
+    public static long signature(SlotView slots, int slot) {
+        return signature(slots.getTypeId(slot), slots.getMaxStackSize(slot), slots.getDamage(slot));
+    }
+
+    //from the most significant bits down: max stack size (descending), type (descending), damage, amount (descending), original position.
+    //the position keeps the sort stable, and everything above the low 16 bits identifies the stack's kind
+    public static long sortKey(int typeId, int maxStackSize, int damage, int amount, int position) {
+        long key = 0xFFL - clamp(maxStackSize, 0xFF);
+        key = (key << 16) | (0xFFFFL - clamp(typeId, 0xFFFF));
+        key = (key << 16) | clamp(damage, 0xFFFF);
+        key = (key << 8) | (0xFFL - clamp(amount, 0xFF));
+        key = (key << 8) | position;
+        return key;
+    }
+
+    private static long clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
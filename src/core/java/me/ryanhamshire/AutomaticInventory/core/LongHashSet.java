@@ -0,0 +1,117 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+import java.util.Arrays;
+
+//open addressing hash set of longs, so hot paths can track keys without boxing them
+public class LongHashSet {
+    private long[] keys;
+    private int mask;
+    private int size = 0;
+    //zero marks an empty slot, so it's tracked separately
+    private boolean containsZero = false;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 1)) << 1;
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public boolean add(long key) {
+        if (key == 0) {
+            if (this.containsZero) return false;
+            this.containsZero = true;
+            this.size++;
+            return true;
+        }
+
+        int slot = this.indexOf(key);
+        while (this.keys[slot] != 0) {
+            if (this.keys[slot] == key) return false;
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.keys[slot] = key;
+        this.size++;
+        if (this.size * 2 > this.keys.length) this.grow();
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return this.containsZero;
+
+        int slot = this.indexOf(key);
+        while (this.keys[slot] != 0) {
+            if (this.keys[slot] == key) return true;
+            slot = (slot + 1) & this.mask;
+        }
+
+        return false;
+    }
+
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!this.containsZero) return false;
+            this.containsZero = false;
+            this.size--;
+            return true;
+        }
+
+        int slot = this.indexOf(key);
+        while (this.keys[slot] != key) {
+            if (this.keys[slot] == 0) return false;
+            slot = (slot + 1) & this.mask;
+        }
+
+        //shift back any following keys which would otherwise become unreachable
+        this.keys[slot] = 0;
+        this.size--;
+        int next = (slot + 1) & this.mask;
+        while (this.keys[next] != 0) {
+            int home = this.indexOf(this.keys[next]);
+            if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+                this.keys[slot] = this.keys[next];
+                this.keys[next] = 0;
+                slot = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+
+        return true;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        this.containsZero = false;
+        this.size = 0;
+    }
+
+    private int indexOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = this.keys;
+        this.keys = new long[oldKeys.length * 2];
+        this.mask = this.keys.length - 1;
+        for (long key : oldKeys) {
+            if (key == 0) continue;
+
+            int slot = this.indexOf(key);
+            while (this.keys[slot] != 0) slot = (slot + 1) & this.mask;
+            this.keys[slot] = key;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+//ChestFloodFill, but searching one distance at a time with every 16x16 chunk column of the area handled by its own fork/join task.
+//a task marks and keeps the cells it reaches within its own column, and only cells crossing into a neighbouring column are handed over,
+//which the neighbour's task marks and takes in itself at the next distance.  the coordinating thread just decides which columns have
+//work, so no locking is needed and almost none of the search is serial.  finds the same chests in the same order as ChestFloodFill,
+//except when the visited cap cuts a search short, which this checks once per distance rather than once per cell
+public class ParallelChestFloodFill implements ChestSearch {
+    //directions a cell can cross into a neighbouring column, or WITHIN when it stays in its own
+    private static final int WITHIN = -1;
+    private static final int EAST = 0;
+    private static final int WEST = 1;
+    private static final int SOUTH = 2;
+    private static final int NORTH = 3;
+
+    private final ForkJoinPool pool;
+    private final int width;
+    private final int height;
+    private final int maxVisited;
+    private final int xzBits;
+    private final int xzMask;
+    private final int columnsWide;
+    //distance << 32 | cell
+    private long[] found = new long[64];
+    private int foundCount = 0;
+
+    public ParallelChestFloodFill(ForkJoinPool pool, int width, int height, int maxVisited) {
+        this.pool = pool;
+        this.width = width;
+        this.height = height;
+        this.maxVisited = maxVisited;
+        this.xzBits = 32 - Integer.numberOfLeadingZeros(Math.max(width - 1, 1));
+        this.xzMask = (1 << this.xzBits) - 1;
+        this.columnsWide = (width + 15) >> 4;
+    }
+
+    @Override
+    public int search(BlockView blocks, int startX, int startY, int startZ, int maxFound) {
+        this.foundCount = 0;
+        if (startX < 0 || startX >= this.width || startZ < 0 || startZ >= this.width || startY < 0 || startY >= this.height) {
+            return 0;
+        }
+
+        //created when the search first reaches a column
+        Column[] columns = new Column[this.columnsWide * this.columnsWide];
+        int start = startX | (startZ << this.xzBits) | (startY << (2 * this.xzBits));
+        Column startColumn = new Column(this.columnOf(start));
+        columns[startColumn.index] = startColumn;
+        startColumn.mark(start);
+        startColumn.cells.add(start);
+
+        List<ColumnTask> tasks = new ArrayList<>();
+        int visitedCount = 1;
+        for (int distance = 0; ; distance++) {
+            tasks.clear();
+            for (int index = 0; index < columns.length; index++) {
+                Column column = columns[index];
+                if (column == null) {
+                    if (!this.hasIncoming(columns, index, distance)) continue;
+
+                    column = new Column(index);
+                    columns[index] = column;
+                } else if (column.cells.size == 0 && !this.hasIncoming(columns, index, distance)) {
+                    continue;
+                }
+
+                tasks.add(new ColumnTask(blocks, columns, column, distance));
+            }
+            if (tasks.isEmpty()) break;
+
+            this.pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+
+            for (ColumnTask task : tasks) {
+                Column column = task.column;
+                visitedCount += column.visitedCount;
+                for (int i = 0; i < column.found.size; i++) {
+                    this.addFound(distance, column.found.values[i]);
+                }
+            }
+
+            if (this.foundCount >= maxFound || visitedCount >= this.maxVisited) break;
+        }
+
+        Arrays.sort(this.found, 0, this.foundCount);
+        return this.foundCount;
+    }
+
+    @Override
+    public int getFoundX(int index) {
+        return (int) this.found[index] & this.xzMask;
+    }
+
+    @Override
+    public int getFoundY(int index) {
+        return (int) this.found[index] >>> (2 * this.xzBits);
+    }
+
+    @Override
+    public int getFoundZ(int index) {
+        return ((int) this.found[index] >>> this.xzBits) & this.xzMask;
+    }
+
+    private int columnOf(int cell) {
+        int x = cell & this.xzMask;
+        int z = (cell >>> this.xzBits) & this.xzMask;
+        return (x >> 4) + (z >> 4) * this.columnsWide;
+    }
+
+    //the column next to this one in a direction, or -1 at the edge of the area
+    private int neighbourOf(int index, int direction) {
+        int columnX = index % this.columnsWide;
+        int columnZ = index / this.columnsWide;
+        switch (direction) {
+            case EAST:
+                return columnX + 1 < this.columnsWide ? index + 1 : -1;
+            case WEST:
+                return columnX > 0 ? index - 1 : -1;
+            case SOUTH:
+                return columnZ + 1 < this.columnsWide ? index + this.columnsWide : -1;
+            default:
+                return columnZ > 0 ? index - this.columnsWide : -1;
+        }
+    }
+
+    private static int opposite(int direction) {
+        return direction ^ 1;
+    }
+
+    //the cells a neighbouring column handed over to this one during the last distance, or null
+    private IntList incomingFrom(Column[] columns, int index, int direction, int distance) {
+        if (distance == 0) return null;
+
+        int neighbourIndex = this.neighbourOf(index, direction);
+        if (neighbourIndex < 0 || columns[neighbourIndex] == null) return null;
+
+        return columns[neighbourIndex].outgoingAt(distance - 1, opposite(direction));
+    }
+
+    private boolean hasIncoming(Column[] columns, int index, int distance) {
+        for (int direction = 0; direction < 4; direction++) {
+            IntList incoming = this.incomingFrom(columns, index, direction, distance);
+            if (incoming != null && incoming.size > 0) return true;
+        }
+
+        return false;
+    }
+
+    private void addFound(int distance, int cell) {
+        if (this.foundCount == this.found.length) {
+            this.found = Arrays.copyOf(this.found, this.found.length * 2);
+        }
+
+        this.found[this.foundCount++] = ((long) distance << 32) | cell;
+    }
+
+    //one chunk column's share of the search, only ever touched by its own task and, between distances, the coordinating thread
+    private class Column {
+        final int index;
+        private final long[] visited = new long[(256 * height + 63) >>> 6];
+        //this distance's cells, already marked visited
+        IntList cells = new IntList();
+        private IntList next = new IntList();
+        //cells reached in each neighbouring column, kept for the last two distances by parity so neighbours can read the last
+        //distance's while this distance's are filled in.  outgoingDistance says which distance each parity holds
+        private final IntList[][] outgoing = new IntList[2][4];
+        private final int[] outgoingDistance = {-1, -1};
+        //this distance's found chests and newly marked cells
+        final IntList found = new IntList();
+        int visitedCount = 0;
+
+        Column(int index) {
+            this.index = index;
+        }
+
+        IntList outgoingAt(int distance, int direction) {
+            int parity = distance & 1;
+            return this.outgoingDistance[parity] == distance ? this.outgoing[parity][direction] : null;
+        }
+
+        //x | z << 4 | y << 8 within the column.  returns false when the cell was already visited
+        boolean mark(int cell) {
+            int x = cell & xzMask;
+            int z = (cell >>> xzBits) & xzMask;
+            int y = cell >>> (2 * xzBits);
+            int bitIndex = (x & 15) | ((z & 15) << 4) | (y << 8);
+            long bit = 1L << bitIndex;
+            if ((this.visited[bitIndex >>> 6] & bit) != 0) return false;
+
+            this.visited[bitIndex >>> 6] |= bit;
+            this.visitedCount++;
+            return true;
+        }
+
+        //a neighbour within this column is marked and kept for the next distance, one in another column is handed over
+        void reach(int cell, int direction, int parity) {
+            if (direction != WITHIN) this.outgoing[parity][direction].add(cell);
+            else if (this.mark(cell)) this.next.add(cell);
+        }
+
+        void endDistance() {
+            IntList done = this.cells;
+            done.size = 0;
+            this.cells = this.next;
+            this.next = done;
+        }
+    }
+
+    //visits one column's share of the current distance
+    private class ColumnTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BlockView blocks;
+        private final Column[] columns;
+        private final Column column;
+        private final int distance;
+
+        ColumnTask(BlockView blocks, Column[] columns, Column column, int distance) {
+            this.blocks = blocks;
+            this.columns = columns;
+            this.column = column;
+            this.distance = distance;
+        }
+
+        @Override
+        protected void compute() {
+            Column column = this.column;
+            column.found.size = 0;
+            column.visitedCount = 0;
+
+            //take in the cells the neighbouring columns reached last distance
+            for (int direction = 0; direction < 4; direction++) {
+                IntList incoming = incomingFrom(this.columns, column.index, direction, this.distance);
+                if (incoming == null) continue;
+
+                for (int i = 0; i < incoming.size; i++) {
+                    int cell = incoming.values[i];
+                    if (column.mark(cell)) column.cells.add(cell);
+                }
+            }
+
+            int parity = this.distance & 1;
+            for (int direction = 0; direction < 4; direction++) {
+                if (column.outgoing[parity][direction] == null) column.outgoing[parity][direction] = new IntList();
+                else column.outgoing[parity][direction].size = 0;
+            }
+            column.outgoingDistance[parity] = this.distance;
+
+            int row = 1 << xzBits;
+            int layer = 1 << (2 * xzBits);
+            IntList cells = column.cells;
+            for (int i = 0; i < cells.size; i++) {
+                int current = cells.values[i];
+                int x = current & xzMask;
+                int z = (current >>> xzBits) & xzMask;
+                int y = current >>> (2 * xzBits);
+                int flags = this.blocks.getFlags(x, y, z);
+                if (flags == BlockView.UNKNOWN) continue;
+                if ((flags & BlockView.CONTAINER) != 0) {
+                    int overFlags = y + 1 < height ? this.blocks.getFlags(x, y + 1, z) : BlockView.UNKNOWN;
+                    if (overFlags == BlockView.UNKNOWN || (overFlags & BlockView.LID_BLOCKING) == 0) {
+                        column.found.add(current);
+                    }
+                }
+
+                if ((flags & BlockView.PASSABLE) == 0) continue;
+
+                if (x + 1 < width) column.reach(current + 1, ((x + 1) & 15) == 0 ? EAST : WITHIN, parity);
+                if (x > 0) column.reach(current - 1, (x & 15) == 0 ? WEST : WITHIN, parity);
+                if (y + 1 < height) column.reach(current + layer, WITHIN, parity);
+                if (y > 0) column.reach(current - layer, WITHIN, parity);
+                if (z + 1 < width) column.reach(current + row, ((z + 1) & 15) == 0 ? SOUTH : WITHIN, parity);
+                if (z > 0) column.reach(current - row, (z & 15) == 0 ? NORTH : WITHIN, parity);
+            }
+
+            column.endDistance();
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (this.size == this.values.length) this.values = Arrays.copyOf(this.values, this.size * 2);
+            this.values[this.size++] = value;
+        }
+    }
+}
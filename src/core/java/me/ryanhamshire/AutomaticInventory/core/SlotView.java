@@ -0,0 +1,20 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+//read-only access to the slots of an inventory, for the core sorting and deposit algorithms.
+//implementations read the server's inventory once up front so these calls are plain array reads
+public interface SlotView {
+    int size();
+
+    //zero for an empty slot
+    int getAmount(int slot);
+
+    int getMaxStackSize(int slot);
+
+    //a small non-negative number identifying the item type, such as an ordinal
+    int getTypeId(int slot);
+
+    int getDamage(int slot);
+
+    //whether the stacks in the two slots could be stacked together
+    boolean isSimilar(int slot, SlotView other, int otherSlot);
+}
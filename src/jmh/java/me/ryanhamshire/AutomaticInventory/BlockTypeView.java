@@ -0,0 +1,8 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+
+//read-only access to the block types of a generated search area, for building headless chunks and the legacy search baseline
+interface BlockTypeView {
+    Material getType(int x, int y, int z);
+}
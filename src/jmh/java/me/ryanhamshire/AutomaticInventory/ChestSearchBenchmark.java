@@ -0,0 +1,96 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.ChestFloodFill;
+import me.ryanhamshire.AutomaticInventory.core.ParallelChestFloodFill;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+//compares the packed-int flood fill, its fork/join version and the old Vector based search over 3x3, 5x5 and 7x7 chunk areas, 21 blocks high
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChestSearchBenchmark {
+    private static final int HEIGHT = 21;
+
+    @Param({"storageRoom", "openField", "maze"})
+    public String layout;
+
+    @Param({"1", "2", "3"})
+    public int chunkRadius;
+
+    private int width;
+    private SyntheticBlocks blocks;
+    private ChestFloodFill floodFill;
+    private ChestFloodFill cappedFloodFill;
+    private ForkJoinPool pool;
+    private ParallelChestFloodFill parallelFloodFill;
+
+    @Setup
+    public void setUp() {
+        this.width = (this.chunkRadius * 2 + 1) * 16;
+        this.blocks = SyntheticBlocks.generate(this.layout, this.width, HEIGHT);
+        this.blocks.set(this.width / 2, HEIGHT / 2, this.width / 2, Material.AIR);
+        this.floodFill = new ChestFloodFill(this.width, HEIGHT);
+        this.cappedFloodFill = new ChestFloodFill(this.width, HEIGHT, 20000);
+        this.pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.parallelFloodFill = new ParallelChestFloodFill(this.pool, this.width, HEIGHT, Integer.MAX_VALUE);
+
+        //the parallel search is only worth measuring if it finds exactly what the sequential one does
+        assertSameResults(Integer.MAX_VALUE);
+        assertSameResults(1);
+        assertSameResults(100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    private void assertSameResults(int maxFound) {
+        int sequentialCount = this.floodFill.search(this.blocks, this.width / 2, HEIGHT / 2, this.width / 2, maxFound);
+        int parallelCount = this.parallelFloodFill.search(this.blocks, this.width / 2, HEIGHT / 2, this.width / 2, maxFound);
+        if (sequentialCount != parallelCount) {
+            throw new IllegalStateException(this.layout + ": sequential search found " + sequentialCount + " chests, parallel search found " + parallelCount);
+        }
+
+        for (int i = 0; i < sequentialCount; i++) {
+            if (this.floodFill.getFoundX(i) != this.parallelFloodFill.getFoundX(i)
+                    || this.floodFill.getFoundY(i) != this.parallelFloodFill.getFoundY(i)
+                    || this.floodFill.getFoundZ(i) != this.parallelFloodFill.getFoundZ(i)) {
+                throw new IllegalStateException(this.layout + ": searches disagree at result " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public int floodFill() {
+        return this.floodFill.search(this.blocks, this.width / 2, HEIGHT / 2, this.width / 2);
+    }
+
+    //the same search with a visited cap well below the open field's cell count
+    @Benchmark
+    public int cappedFloodFill() {
+        return this.cappedFloodFill.search(this.blocks, this.width / 2, HEIGHT / 2, this.width / 2);
+    }
+
+    @Benchmark
+    public int parallelFloodFill() {
+        return this.parallelFloodFill.search(this.blocks, this.width / 2, HEIGHT / 2, this.width / 2, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int legacySearch() {
+        return new LegacyChestSearch(this.blocks, this.width, HEIGHT).search(this.width / 2, HEIGHT / 2, this.width / 2).size();
+    }
+}
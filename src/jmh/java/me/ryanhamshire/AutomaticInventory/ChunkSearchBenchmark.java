@@ -0,0 +1,78 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.ChestFloodFill;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+//the /depositall search as the plugin runs it, over fake chunks of synthetic blocks:
+//copyBands copies the height band out of every chunk snapshot, which ChestScan does for each chunk the first time the search reads it,
+//and search runs the flood fill through ChestScan over every chunk it reaches, both on the scan thread
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkSearchBenchmark {
+    private static final int HEIGHT = 21;
+    private static final int MIN_Y = 60;
+
+    @Param({"storageRoom", "openField", "maze"})
+    public String layout;
+
+    @Param({"1", "2", "3"})
+    public int chunkRadius;
+
+    private int width;
+    private ChunkSnapshot[][] chunks;
+    private ChestScan scan;
+    private ChestFloodFill floodFill;
+
+    @Setup
+    public void setUp() {
+        this.width = (this.chunkRadius * 2 + 1) * 16;
+        SyntheticBlocks blocks = SyntheticBlocks.generate(this.layout, this.width, HEIGHT);
+        blocks.set(this.width / 2, HEIGHT / 2, this.width / 2, Material.AIR);
+
+        int diameter = this.chunkRadius * 2 + 1;
+        this.chunks = new ChunkSnapshot[diameter][diameter];
+        for (int x = 0; x < diameter; x++) {
+            for (int z = 0; z < diameter; z++) {
+                this.chunks[x][z] = Headless.chunkSnapshot(blocks, x, z, MIN_Y, HEIGHT);
+            }
+        }
+
+        this.scan = new ChestScan(Headless.world(this.chunks), 0, 0, diameter, MIN_Y, MIN_Y + HEIGHT - 1,
+                this.width / 2, MIN_Y + HEIGHT / 2, this.width / 2, null);
+        this.floodFill = new ChestFloodFill(this.width, HEIGHT);
+
+        //snapshot chunks round by round the way the plugin does, until the search reaches no chunk it hasn't got
+        while (this.scan.snapshotRequestedChunks()) {
+            this.search();
+        }
+    }
+
+    @Benchmark
+    public ChunkBandSnapshot[][] copyBands() {
+        ChunkBandSnapshot[][] snapshots = new ChunkBandSnapshot[this.chunks.length][this.chunks.length];
+        for (int x = 0; x < this.chunks.length; x++) {
+            for (int z = 0; z < this.chunks.length; z++) {
+                snapshots[x][z] = ChunkBandSnapshot.of(this.chunks[x][z], MIN_Y, MIN_Y + HEIGHT - 1);
+            }
+        }
+
+        return snapshots;
+    }
+
+    @Benchmark
+    public int search() {
+        return this.floodFill.search(this.scan, this.width / 2, HEIGHT / 2, this.width / 2);
+    }
+}
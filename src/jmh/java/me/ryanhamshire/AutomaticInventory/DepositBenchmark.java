@@ -0,0 +1,79 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//deposits a full 36 slot player inventory into a 54 slot double chest which already holds some of the same items.
+//every benchmark restores both inventories first, resetOnly measures just that part
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DepositBenchmark {
+    private static final Material[] PLAYER_ITEMS = {Material.COBBLESTONE, Material.DIRT, Material.STONE, Material.GLASS, Material.TORCH, Material.ARROW};
+    private static final Material[] CHEST_ITEMS = {Material.COBBLESTONE, Material.STONE, Material.TORCH};
+
+    private final Set<Material> excludedTypes = EnumSet.of(Material.AIR, Material.ARROW);
+    private final BitSet excludedTypeIds = new BitSet();
+    private ItemStack[] playerContents;
+    private ItemStack[] chestContents;
+    private PlayerInventory playerInventory;
+    private Inventory chestInventory;
+
+    @Setup
+    public void setUp() {
+        Headless.installServer();
+        for (Material type : this.excludedTypes) {
+            this.excludedTypeIds.set(type.ordinal());
+        }
+
+        this.playerContents = new ItemStack[36];
+        for (int i = 0; i < this.playerContents.length; i++) {
+            this.playerContents[i] = new ItemStack(PLAYER_ITEMS[i % PLAYER_ITEMS.length], 1 + (i * 7) % 64);
+        }
+
+        this.chestContents = new ItemStack[54];
+        for (int i = 0; i < 12; i++) {
+            this.chestContents[i * 3] = new ItemStack(CHEST_ITEMS[i % CHEST_ITEMS.length], 16);
+        }
+
+        this.playerInventory = Headless.playerInventory();
+        this.chestInventory = Headless.inventory(54);
+    }
+
+    @Benchmark
+    public Inventory resetOnly() {
+        this.reset();
+        return this.chestInventory;
+    }
+
+    @Benchmark
+    public int depositMatching() {
+        this.reset();
+        return AutomaticInventory.depositMatching(this.playerInventory, this.chestInventory, false, this.excludedTypeIds).totalItems;
+    }
+
+    @Benchmark
+    public int legacyDepositMatching() {
+        this.reset();
+        return LegacyDeposit.depositMatching(this.playerInventory, this.chestInventory, false, this.excludedTypes).totalItems;
+    }
+
+    private void reset() {
+        this.playerInventory.setContents(this.playerContents);
+        this.chestInventory.setContents(this.chestContents);
+    }
+}
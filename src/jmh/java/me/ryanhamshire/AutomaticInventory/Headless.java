@@ -0,0 +1,294 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+//just enough of a server for ItemStacks, inventories and chunks to work inside benchmarks.  anything else throws or returns null
+class Headless {
+    private static boolean serverInstalled = false;
+
+    static synchronized void installServer() {
+        if (serverInstalled) return;
+
+        ItemFactory itemFactory = proxy(ItemFactory.class, (method, args) -> {
+            switch (method.getName()) {
+                //like the real factory, hands out a fresh meta object on every call
+                case "getItemMeta":
+                    return blankMeta();
+                case "asMetaFor":
+                    return args[0];
+                case "isApplicable":
+                    return true;
+                case "updateMaterial":
+                    return args[1];
+                case "equals":
+                    return Objects.equals(args[0], args[1]);
+                default:
+                    return null;
+            }
+        });
+
+        Bukkit.setServer(proxy(Server.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getLogger":
+                    return Logger.getLogger("Headless");
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "Headless";
+                case "getItemFactory":
+                    return itemFactory;
+                default:
+                    return null;
+            }
+        }));
+        serverInstalled = true;
+    }
+
+    static Inventory inventory(int size) {
+        return proxy(Inventory.class, new FakeInventory(size, InventoryType.CHEST));
+    }
+
+    static PlayerInventory playerInventory() {
+        return proxy(PlayerInventory.class, new FakeInventory(41, InventoryType.PLAYER));
+    }
+
+    //a world with the usual 256 block build height
+    static World world() {
+        return world(new ChunkSnapshot[0][0]);
+    }
+
+    //a world with the usual 256 block build height whose only loaded chunks are the given snapshots, from chunk 0, 0
+    static World world(ChunkSnapshot[][] chunks) {
+        return proxy(World.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getMaxHeight":
+                    return 256;
+                case "getName":
+                    return "Headless";
+                case "isChunkLoaded":
+                    int chunkX = (Integer) args[0];
+                    int chunkZ = (Integer) args[1];
+                    return chunkX >= 0 && chunkX < chunks.length && chunkZ >= 0 && chunkZ < chunks.length;
+                case "getChunkAt":
+                    ChunkSnapshot snapshot = chunks[(Integer) args[0]][(Integer) args[1]];
+                    return proxy(Chunk.class, (chunkMethod, chunkArgs) -> {
+                        if (chunkMethod.getName().equals("getChunkSnapshot")) return snapshot;
+                        throw new UnsupportedOperationException(chunkMethod.getName());
+                    });
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    //a snapshot of one 16x16 chunk of the synthetic blocks, with the blocks' bottom layer at minY and air above and below them
+    static ChunkSnapshot chunkSnapshot(BlockTypeView blocks, int chunkX, int chunkZ, int minY, int height) {
+        return proxy(ChunkSnapshot.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getX":
+                    return chunkX;
+                case "getZ":
+                    return chunkZ;
+                case "getBlockType":
+                    int y = (Integer) args[1] - minY;
+                    if (y < 0 || y >= height) return Material.AIR;
+                    return blocks.getType(chunkX * 16 + (Integer) args[0], y, chunkZ * 16 + (Integer) args[2]);
+                case "isSectionEmpty":
+                    return false;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    //an item meta for a damageable item, equal to any other meta with the same damage
+    static ItemMeta damagedMeta(int damage) {
+        return (ItemMeta) Proxy.newProxyInstance(Headless.class.getClassLoader(), new Class<?>[]{ItemMeta.class, Damageable.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getDamage":
+                    return damage;
+                case "hasDamage":
+                    return damage > 0;
+                case "clone":
+                    return proxy;
+                case "equals":
+                    return args[0] instanceof Damageable && ((Damageable) args[0]).getDamage() == damage;
+                case "hashCode":
+                    return damage;
+                case "toString":
+                    return "DamagedMeta(" + damage + ")";
+                default:
+                    return null;
+            }
+        });
+    }
+
+    interface Handler {
+        Object handle(Method method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    if (method.getParameterCount() == 0) return System.identityHashCode(proxy);
+                    break;
+                case "equals":
+                    if (method.getParameterCount() == 1 && method.getDeclaringClass() == Object.class) return proxy == args[0];
+                    break;
+                case "toString":
+                    if (method.getParameterCount() == 0) return type.getSimpleName();
+                    break;
+            }
+
+            return handler.handle(method, args);
+        };
+        return (T) Proxy.newProxyInstance(Headless.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    //an item meta which is never damaged and has nothing else set
+    private static ItemMeta blankMeta() {
+        return damagedMeta(0);
+    }
+
+    //an array backed inventory which copies stacks on the way in, like CraftInventory does
+    private static class FakeInventory implements Handler {
+        private final ItemStack[] items;
+        private final InventoryType type;
+
+        FakeInventory(int size, InventoryType type) {
+            this.items = new ItemStack[size];
+            this.type = type;
+        }
+
+        @Override
+        public Object handle(Method method, Object[] args) {
+            switch (method.getName()) {
+                case "getSize":
+                    return this.type == InventoryType.PLAYER ? 36 : this.items.length;
+                case "getMaxStackSize":
+                    return 64;
+                case "getType":
+                    return this.type;
+                //not at any block, like an inventory made by Bukkit.createInventory
+                case "getLocation":
+                    return null;
+                case "getItem":
+                    return this.items[(Integer) args[0]];
+                case "setItem":
+                    this.setItem((Integer) args[0], (ItemStack) args[1]);
+                    return null;
+                case "clear":
+                    if (args == null) Arrays.fill(this.items, null);
+                    else this.items[(Integer) args[0]] = null;
+                    return null;
+                case "getContents":
+                case "getStorageContents":
+                    return this.items.clone();
+                case "setContents":
+                case "setStorageContents":
+                    ItemStack[] contents = (ItemStack[]) args[0];
+                    for (int i = 0; i < this.items.length; i++) {
+                        this.setItem(i, i < contents.length ? contents[i] : null);
+                    }
+                    return null;
+                case "firstEmpty":
+                    return this.firstEmpty();
+                case "addItem":
+                    return this.addItem((ItemStack[]) args[0]);
+                case "getHeldItemSlot":
+                    return 0;
+                case "getItemInMainHand":
+                    return this.items[0] == null ? new ItemStack(Material.AIR) : this.items[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+
+        private void setItem(int index, ItemStack stack) {
+            this.items[index] = stack == null || stack.getAmount() <= 0 ? null : stack.clone();
+        }
+
+        private int firstEmpty() {
+            int size = this.type == InventoryType.PLAYER ? 36 : this.items.length;
+            for (int i = 0; i < size; i++) {
+                if (this.items[i] == null) return i;
+            }
+
+            return -1;
+        }
+
+        private int firstPartial(ItemStack item) {
+            int size = this.type == InventoryType.PLAYER ? 36 : this.items.length;
+            for (int i = 0; i < size; i++) {
+                ItemStack stack = this.items[i];
+                if (stack != null && stack.getAmount() < stack.getMaxStackSize() && stack.isSimilar(item)) return i;
+            }
+
+            return -1;
+        }
+
+        //same algorithm as CraftInventory.addItem
+        private HashMap<Integer, ItemStack> addItem(ItemStack[] toAdd) {
+            HashMap<Integer, ItemStack> leftover = new HashMap<>();
+            for (int i = 0; i < toAdd.length; i++) {
+                ItemStack item = toAdd[i];
+                while (true) {
+                    int firstPartial = this.firstPartial(item);
+                    if (firstPartial == -1) {
+                        int firstFree = this.firstEmpty();
+                        if (firstFree == -1) {
+                            leftover.put(i, item);
+                            break;
+                        }
+
+                        if (item.getAmount() > 64) {
+                            ItemStack stack = item.clone();
+                            stack.setAmount(64);
+                            this.setItem(firstFree, stack);
+                            item.setAmount(item.getAmount() - 64);
+                        } else {
+                            this.setItem(firstFree, item);
+                            break;
+                        }
+                    } else {
+                        ItemStack partialItem = this.items[firstPartial];
+                        int amount = item.getAmount();
+                        int partialAmount = partialItem.getAmount();
+                        int maxAmount = partialItem.getMaxStackSize();
+                        if (amount + partialAmount <= maxAmount) {
+                            partialItem.setAmount(amount + partialAmount);
+                            break;
+                        }
+
+                        partialItem.setAmount(maxAmount);
+                        item.setAmount(amount + partialAmount - maxAmount);
+                    }
+                }
+            }
+
+            return leftover;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+import org.bukkit.util.Vector;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+//the Vector and ConcurrentLinkedQueue based search /depositall used before ChestFloodFill, kept as a baseline
+class LegacyChestSearch {
+    private final BlockTypeView blocks;
+    private final int width;
+    private final int height;
+    private final boolean[][][] seen;
+
+    LegacyChestSearch(BlockTypeView blocks, int width, int height) {
+        this.blocks = blocks;
+        this.width = width;
+        this.height = height;
+        this.seen = new boolean[width][height][width];
+    }
+
+    Queue<Vector> search(int startX, int startY, int startZ) {
+        Queue<Vector> chestLocations = new ConcurrentLinkedQueue<>();
+        Queue<Vector> leftToVisit = new ConcurrentLinkedQueue<>();
+        Vector start = new Vector(startX, startY, startZ);
+        leftToVisit.add(start);
+        this.markSeen(start);
+        while (!leftToVisit.isEmpty()) {
+            Vector current = leftToVisit.remove();
+
+            Material type = this.getType(current);
+            if (type == null) continue;
+            if (type == Material.CHEST || type == Material.TRAPPED_CHEST || type == Material.ENDER_CHEST || type.name().contains("SHULKER")) {
+                Material overType = this.getType(new Vector(current.getBlockX(), current.getBlockY() + 1, current.getBlockZ()));
+                if (overType == null || !(overType != Material.CHEST && overType.isSolid())) {
+                    chestLocations.add(current);
+                }
+            }
+
+            if (isPassable(type)) {
+                Vector[] adjacents = new Vector[]{
+                        new Vector(current.getBlockX() + 1, current.getBlockY(), current.getBlockZ()),
+                        new Vector(current.getBlockX() - 1, current.getBlockY(), current.getBlockZ()),
+                        new Vector(current.getBlockX(), current.getBlockY() + 1, current.getBlockZ()),
+                        new Vector(current.getBlockX(), current.getBlockY() - 1, current.getBlockZ()),
+                        new Vector(current.getBlockX(), current.getBlockY(), current.getBlockZ() + 1),
+                        new Vector(current.getBlockX(), current.getBlockY(), current.getBlockZ() - 1),
+                };
+
+                for (Vector adjacent : adjacents) {
+                    if (!this.alreadySeen(adjacent)) {
+                        leftToVisit.add(adjacent);
+                        this.markSeen(adjacent);
+                    }
+                }
+            }
+        }
+
+        return chestLocations;
+    }
+
+    private Material getType(Vector location) {
+        if (this.outOfBounds(location)) return null;
+        return this.blocks.getType(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private boolean alreadySeen(Vector location) {
+        if (this.outOfBounds(location)) return true;
+        return this.seen[location.getBlockX()][location.getBlockY()][location.getBlockZ()];
+    }
+
+    private void markSeen(Vector location) {
+        if (this.outOfBounds(location)) return;
+        this.seen[location.getBlockX()][location.getBlockY()][location.getBlockZ()] = true;
+    }
+
+    private boolean outOfBounds(Vector location) {
+        if (location.getBlockY() >= this.height) return true;
+        if (location.getBlockY() < 0) return true;
+        if (location.getBlockX() >= this.width) return true;
+        if (location.getBlockX() < 0) return true;
+        if (location.getBlockZ() >= this.width) return true;
+        return location.getBlockZ() < 0;
+    }
+
+    //the old name scanning check, kept as it was for comparison
+    private static boolean isPassable(Material type) {
+        switch (type) {
+            case AIR:
+            case CHEST:
+            case TRAPPED_CHEST:
+            case HOPPER:
+                return true;
+            default:
+                return type.name().contains("SIGN");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+//the String signature based depositMatching used before ItemSignature, kept as a baseline
+class LegacyDeposit {
+    static DepositRecord depositMatching(PlayerInventory source, Inventory destination, boolean depositHotbar, Set<Material> excludedTypes) {
+        HashSet<String> eligibleSignatures = new HashSet<>();
+        DepositRecord deposits = new DepositRecord();
+        for (int i = 0; i < destination.getSize(); i++) {
+            ItemStack destinationStack = destination.getItem(i);
+            if (destinationStack == null) continue;
+
+            String signature = getSignature(destinationStack);
+            eligibleSignatures.add(signature);
+        }
+        int sourceStartIndex = depositHotbar ? 0 : 9;
+        int sourceSize = Math.min(source.getSize(), 36);
+        for (int i = sourceStartIndex; i < sourceSize; i++) {
+            ItemStack sourceStack = source.getItem(i);
+            if (sourceStack == null) continue;
+
+            if (excludedTypes.contains(sourceStack.getType())) continue;
+
+            String signature = getSignature(sourceStack);
+            int sourceStackSize = sourceStack.getAmount();
+            if (eligibleSignatures.contains(signature)) {
+                HashMap<Integer, ItemStack> notMoved = destination.addItem(sourceStack);
+                if (notMoved.isEmpty()) {
+                    source.clear(i);
+                    deposits.totalItems += sourceStackSize;
+                } else {
+                    int notMovedCount = notMoved.values().iterator().next().getAmount();
+                    int movedCount = sourceStackSize - notMovedCount;
+                    if (movedCount == 0) {
+                        eligibleSignatures.remove(signature);
+                    } else {
+                        int newAmount = sourceStackSize - movedCount;
+                        sourceStack.setAmount(newAmount);
+                        deposits.totalItems += movedCount;
+                    }
+                }
+            }
+        }
+
+        if (destination.firstEmpty() == -1) {
+            deposits.destinationFull = true;
+        }
+
+        return deposits;
+    }
+
+    static String getSignature(ItemStack stack) {
+        String signature = stack.getType().name();
+        if (stack.getMaxStackSize() > 1) {
+            ItemMeta meta = stack.getItemMeta();
+            if (meta instanceof Damageable) signature += "." + ((Damageable) meta).getDamage();
+        }
+        return signature;
+    }
+}
@@ -0,0 +1,60 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+//signs a mix of plain stacks and damaged tools, comparing ItemSignature with the old String signatures
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SignatureBenchmark {
+    private static final int STACKS = 64;
+    private static final Material[] ITEMS = {Material.COBBLESTONE, Material.DIRT, Material.TORCH, Material.IRON_PICKAXE, Material.BOW, Material.ENDER_PEARL};
+
+    private ItemStack[] stacks;
+
+    @Setup
+    public void setUp() {
+        Headless.installServer();
+
+        this.stacks = new ItemStack[STACKS];
+        for (int i = 0; i < STACKS; i++) {
+            Material type = ITEMS[i % ITEMS.length];
+            ItemStack stack = new ItemStack(type, type.getMaxStackSize() > 1 ? 1 + i % type.getMaxStackSize() : 1);
+            if (type.getMaxDurability() > 0) stack.setItemMeta(Headless.damagedMeta(i % type.getMaxDurability()));
+            this.stacks[i] = stack;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STACKS)
+    public long itemSignature() {
+        long combined = 0;
+        for (ItemStack stack : this.stacks) {
+            combined += ItemSignature.of(stack);
+        }
+
+        return combined;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STACKS)
+    public int legacySignature() {
+        int combined = 0;
+        for (ItemStack stack : this.stacks) {
+            combined += LegacyDeposit.getSignature(stack).hashCode();
+        }
+
+        return combined;
+    }
+}
@@ -0,0 +1,97 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//sorts a player inventory (from slot 9) or a 54 slot double chest, starting either shuffled or already sorted.
+//sort and resetOnly restore the contents and forget the sort cache first, alreadySortedCached measures the skip when nothing changed
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SortBenchmark {
+    private static final Material[] ITEMS = {
+            Material.COBBLESTONE, Material.DIRT, Material.STONE, Material.GLASS, Material.TORCH, Material.ARROW,
+            Material.OAK_LOG, Material.IRON_INGOT, Material.ENDER_PEARL, Material.DIAMOND_PICKAXE, Material.IRON_SWORD, Material.BREAD
+    };
+
+    @Param({"player", "chest"})
+    public String inventoryType;
+
+    @Param({"shuffled", "sorted"})
+    public String order;
+
+    private Inventory inventory;
+    private Inventory cachedInventory;
+    private int startIndex;
+    private ItemStack[] contents;
+
+    @Setup
+    public void setUp() {
+        Headless.installServer();
+
+        boolean player = this.inventoryType.equals("player");
+        this.inventory = player ? Headless.playerInventory() : Headless.inventory(54);
+        this.startIndex = player ? 9 : 0;
+        int size = player ? 36 : 54;
+
+        //mostly partial stacks so there's merging to do, some damaged tools and a few empty slots
+        Random random = new Random(42);
+        this.contents = new ItemStack[size];
+        for (int i = this.startIndex; i < size; i++) {
+            if (random.nextInt(8) == 0) continue;
+
+            Material type = ITEMS[random.nextInt(ITEMS.length)];
+            ItemStack stack = new ItemStack(type, 1 + random.nextInt(type.getMaxStackSize()));
+            if (type.getMaxDurability() > 0 && random.nextBoolean()) {
+                stack.setItemMeta(Headless.damagedMeta(1 + random.nextInt(type.getMaxDurability() - 1)));
+            }
+            this.contents[i] = stack;
+        }
+
+        if (this.order.equals("sorted")) {
+            this.inventory.setContents(this.contents);
+            new InventorySorter(this.inventory, this.startIndex).run();
+            this.contents = this.inventory.getContents();
+        }
+
+        this.cachedInventory = player ? Headless.playerInventory() : Headless.inventory(54);
+        this.cachedInventory.setContents(this.contents);
+        new InventorySorter(this.cachedInventory, this.startIndex).run();
+    }
+
+    @Benchmark
+    public Inventory resetOnly() {
+        this.reset();
+        return this.inventory;
+    }
+
+    @Benchmark
+    public Inventory sort() {
+        this.reset();
+        new InventorySorter(this.inventory, this.startIndex).run();
+        return this.inventory;
+    }
+
+    @Benchmark
+    public Inventory alreadySortedCached() {
+        new InventorySorter(this.cachedInventory, this.startIndex).run();
+        return this.cachedInventory;
+    }
+
+    private void reset() {
+        this.inventory.setContents(this.contents);
+        SortedInventoryCache.forget(this.inventory);
+    }
+}
@@ -0,0 +1,80 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.BlockView;
+import org.bukkit.Material;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//generated block layouts for benchmarking chest searches without a server
+class SyntheticBlocks implements BlockTypeView, BlockView {
+    private final Material[] types;
+    private final int width;
+    private final int height;
+
+    private SyntheticBlocks(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.types = new Material[width * height * width];
+        Arrays.fill(this.types, Material.AIR);
+    }
+
+    static SyntheticBlocks generate(String layout, int width, int height) {
+        SyntheticBlocks blocks = new SyntheticBlocks(width, height);
+        switch (layout) {
+            //an enclosed room with rows of double-stacked chests
+            case "storageRoom":
+                blocks.fillLayer(0, Material.STONE);
+                blocks.fillLayer(height - 1, Material.STONE);
+                for (int x = 2; x < width - 2; x += 3) {
+                    for (int z = 2; z < width - 2; z++) {
+                        blocks.set(x, 1, z, Material.CHEST);
+                        blocks.set(x, 2, z, Material.CHEST);
+                    }
+                }
+                break;
+
+            //nothing but air above a floor, so every cell gets visited
+            case "openField":
+                blocks.fillLayer(0, Material.STONE);
+                break;
+
+            //randomly scattered walls and chests
+            case "maze":
+                Random random = new Random(42);
+                for (int i = 0; i < blocks.types.length; i++) {
+                    int roll = random.nextInt(100);
+                    if (roll < 30) blocks.types[i] = Material.STONE;
+                    else if (roll < 35) blocks.types[i] = Material.CHEST;
+                }
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown layout " + layout);
+        }
+
+        return blocks;
+    }
+
+    @Override
+    public Material getType(int x, int y, int z) {
+        return this.types[(y * this.width + z) * this.width + x];
+    }
+
+    @Override
+    public int getFlags(int x, int y, int z) {
+        return MaterialTables.flagsOf(this.getType(x, y, z));
+    }
+
+    void set(int x, int y, int z, Material type) {
+        this.types[(y * this.width + z) * this.width + x] = type;
+    }
+
+    private void fillLayer(int y, Material type) {
+        for (int x = 0; x < this.width; x++) {
+            for (int z = 0; z < this.width; z++) {
+                this.set(x, y, z, type);
+            }
+        }
+    }
+}
@@ -17,31 +17,27 @@ import org.bukkit.event.block.BlockDamageEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.entity.ProjectileLaunchEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.player.*;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.inventory.*;
-import org.bukkit.inventory.meta.Damageable;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.projectiles.ProjectileSource;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-
 //TODO Public classes
 //TODO Move all the "Tasks" out of here
 class AIEventHandler implements Listener {
     static void sortPlayerIfEnabled(Inventory inventory) {
-        new InventorySorter(inventory, 9).run();
+        AutomaticInventory.instance.sortCoalescer.requestSort(inventory, 9, 0L);
     }
 
     static boolean isSortableChestInventory(Inventory inventory) {
         if (inventory == null) return false;
 
-        InventoryType inventoryType = inventory.getType();
-        if (inventoryType != InventoryType.CHEST && inventoryType != InventoryType.ENDER_CHEST && inventoryType != InventoryType.SHULKER_BOX)
-            return false;
+        if (!MaterialTables.isSortableInventoryType(inventory.getType())) return false;
 
         /*
         String name = inventory.getName();
@@ -115,12 +111,11 @@ class AIEventHandler implements Listener {
         }
 
         if (AutomaticInventory.instance.config_noAutoRefillIDs.contains(stack.getType())) return;
+        PlayerInventory inventory = player.getInventory();
         if (!dataValueMatters || stack.getAmount() == 1) {
-            PlayerInventory inventory = player.getInventory();
-            AutomaticInventory.instance.getServer().getScheduler().scheduleSyncDelayedTask(
-                    AutomaticInventory.instance,
-                    new AutoRefillHotBarTask(inventory, slotIndex, stack.clone()),
-                    2L);
+            AutomaticInventory.instance.refillScheduler.requestRefill(inventory, slotIndex, stack);
+        } else {
+            AutomaticInventory.instance.refillScheduler.observe(inventory, slotIndex, stack);
         }
     }
 
@@ -132,13 +127,32 @@ class AIEventHandler implements Listener {
 
         Block clickedBlock = event.getBlock();
         if (clickedBlock == null) return;
-        if (!(clickedBlock.getState() instanceof Container)) return;
 
-        PlayerInteractEvent fakeEvent = AutomaticInventory.instance.new FakePlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK, player.getInventory().getItemInMainHand(), clickedBlock, BlockFace.EAST);
-        Bukkit.getServer().getPluginManager().callEvent(fakeEvent);
-        if (fakeEvent.isCancelled()) return;
+        BlockState state = clickedBlock.getState();
+        if (!(state instanceof Container)) return;
+
+        //turn away punches over the rate limit, but still keep the container from being broken
+        QuickDepositGuard guard = AutomaticInventory.instance.quickDepositGuard;
+        if (!guard.hasToken(player)) {
+            event.setCancelled(true);
+            Metrics.quickDepositsThrottled.increment();
+            return;
+        }
+
+        guard.takeToken(player);
+        Boolean allowed = guard.getCachedAccess(player, clickedBlock);
+        if (allowed == null) {
+            PlayerInteractEvent fakeEvent = AutomaticInventory.instance.new FakePlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK, player.getInventory().getItemInMainHand(), clickedBlock, BlockFace.EAST);
+            Bukkit.getServer().getPluginManager().callEvent(fakeEvent);
+            Metrics.accessChecksFired.increment();
+            allowed = !fakeEvent.isCancelled();
+            guard.rememberAccess(player, clickedBlock, allowed);
+        } else {
+            Metrics.accessChecksAvoided.increment();
+        }
+        if (!allowed) return;
 
-        InventoryHolder chest = (InventoryHolder) clickedBlock.getState();
+        InventoryHolder chest = (InventoryHolder) state;
         Inventory chestInventory = chest.getInventory();
         PlayerInventory playerInventory = player.getInventory();
 
@@ -186,8 +200,7 @@ class AIEventHandler implements Listener {
             Inventory topInventory = event.getView().getTopInventory();
             if (!isSortableChestInventory(topInventory)) return;
 
-            InventorySorter sorter = new InventorySorter(topInventory, 0);
-            Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(AutomaticInventory.instance, sorter, 1L);
+            AutomaticInventory.instance.sortCoalescer.requestSort(topInventory, 0, 1L);
         }
     }
 
@@ -204,9 +217,26 @@ class AIEventHandler implements Listener {
         Player player = (Player) holder;
         PlayerData playerData = PlayerData.FromPlayer(player);
 
+        //items left in crafting slots go back to the player
+        MaterialSlotIndex.invalidate(bottomInventory);
         sortPlayerIfEnabled(bottomInventory);
     }
 
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    void onInventoryClick(InventoryClickEvent event) {
+        MaterialSlotIndex.invalidate(event.getWhoClicked().getInventory());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    void onInventoryDrag(InventoryDragEvent event) {
+        MaterialSlotIndex.invalidate(event.getWhoClicked().getInventory());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    void onSwapHandItems(PlayerSwapHandItemsEvent event) {
+        MaterialSlotIndex.invalidate(event.getPlayer().getInventory());
+    }
+
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
 
     public void onPickupItem(EntityPickupItemEvent event) {
@@ -214,16 +244,14 @@ class AIEventHandler implements Listener {
         if (!(entity instanceof Player)) return;
         Player player = (Player) entity;
 
-        PlayerData playerData = PlayerData.FromPlayer(player);
-        if (playerData.firstEmptySlot >= 0) return;
-
         PlayerInventory inventory = player.getInventory();
         int firstEmpty = inventory.firstEmpty();
         if (firstEmpty < 9) return;
-        playerData.firstEmptySlot = firstEmpty;
-        PickupSortTask task = new PickupSortTask(playerData, inventory);
-        Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(AutomaticInventory.instance, task, 100L);
 
+        MaterialSlotIndex.invalidate(inventory);
+
+        //give the player a few seconds to finish picking things up
+        AutomaticInventory.instance.sortCoalescer.requestSort(inventory, 9, 100L);
     }
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
@@ -236,141 +264,17 @@ class AIEventHandler implements Listener {
     void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         PlayerData.FromPlayer(player).saveChanges();
+        AutomaticInventory.instance.sortCoalescer.forget(player.getInventory());
+        SortedInventoryCache.forget(player.getInventory());
+        AutomaticInventory.instance.sortCoalescer.forget(player.getEnderChest());
+        SortedInventoryCache.forget(player.getEnderChest());
+        MaterialSlotIndex.forget(player.getInventory());
+        AutomaticInventory.instance.refillScheduler.forget(player.getInventory());
+        AutomaticInventory.instance.quickDepositGuard.forget(player);
     }
 
-    class AutoRefillHotBarTask implements Runnable {
-        private PlayerInventory targetInventory;
-        private int slotToRefill;
-        private ItemStack stackToReplace;
-
-        AutoRefillHotBarTask(PlayerInventory targetInventory, int slotToRefill, ItemStack stackToReplace) {
-            this.targetInventory = targetInventory;
-            this.slotToRefill = slotToRefill;
-            this.stackToReplace = stackToReplace;
-        }
-
-        @Override
-        public void run() {
-            ItemStack currentStack = this.targetInventory.getItem(this.slotToRefill);
-            if (currentStack != null) return;
-
-            ItemStack bestMatchStack = null;
-            int bestMatchSlot = -1;
-            int bestMatchStackSize = Integer.MAX_VALUE;
-            for (int i = 0; i < 36; i++) {
-                ItemStack itemInSlot = this.targetInventory.getItem(i);
-                if (itemInSlot == null) continue;
-                if (itemInSlot.isSimilar(this.stackToReplace)) {
-                    int stackSize = itemInSlot.getAmount();
-                    if (stackSize < bestMatchStackSize) {
-                        bestMatchStack = itemInSlot;
-                        bestMatchSlot = i;
-                        bestMatchStackSize = stackSize;
-                    }
-
-                    if (bestMatchStackSize == 1) break;
-                }
-            }
-
-            if (bestMatchStack == null) return;
-
-            this.targetInventory.setItem(this.slotToRefill, bestMatchStack);
-            this.targetInventory.clear(bestMatchSlot);
-        }
-    }
-}
-
-class PickupSortTask implements Runnable {
-    private PlayerData playerData;
-    private Inventory playerInventory;
-
-    PickupSortTask(PlayerData playerData, Inventory playerInventory) {
-        this.playerData = playerData;
-        this.playerInventory = playerInventory;
-    }
-
-    @Override
-    public void run() {
-        if (this.playerData.firstEmptySlot == playerInventory.firstEmpty()) {
-            this.playerData.firstEmptySlot = -1;
-            return;
-        }
-
-        AIEventHandler.sortPlayerIfEnabled(this.playerInventory);
-
-        this.playerData.firstEmptySlot = -1;
+    @EventHandler(priority = EventPriority.MONITOR)
+    void onChunkUnload(ChunkUnloadEvent event) {
+        SortedInventoryCache.forgetChunk(event.getChunk());
     }
 }
-
-class InventorySorter implements Runnable {
-    private Inventory inventory;
-    private int startIndex;
-
-    InventorySorter(Inventory inventory, int startIndex) {
-        this.inventory = inventory;
-        this.startIndex = startIndex;
-    }
-
-    @Override
-    public void run() {
-        ArrayList<ItemStack> stacks = new ArrayList<>();
-        ItemStack[] contents = this.inventory.getContents();
-        int inventorySize = contents.length;
-        if (this.inventory.getType() == InventoryType.PLAYER) inventorySize = Math.min(contents.length, 36);
-        for (int i = this.startIndex; i < inventorySize; i++) {
-            ItemStack stack = contents[i];
-            if (stack != null) {
-                stacks.add(stack);
-            }
-        }
-
-        stacks.sort(new StackComparator());
-        for (int i = 1; i < stacks.size(); i++) {
-            ItemStack prevStack = stacks.get(i - 1);
-            ItemStack thisStack = stacks.get(i);
-            if (prevStack.isSimilar(thisStack)) {
-                if (prevStack.getAmount() < prevStack.getMaxStackSize()) {
-                    int moveCount = Math.min(prevStack.getMaxStackSize() - prevStack.getAmount(), thisStack.getAmount());
-                    prevStack.setAmount(prevStack.getAmount() + moveCount);
-                    thisStack.setAmount(thisStack.getAmount() - moveCount);
-                    if (thisStack.getAmount() == 0) {
-                        stacks.remove(i);
-                        i--;
-                    }
-                }
-            }
-        }
-
-        int i;
-        for (i = 0; i < stacks.size(); i++) {
-            this.inventory.setItem(i + this.startIndex, stacks.get(i));
-        }
-
-        for (i = i + this.startIndex; i < inventorySize; i++) {
-            this.inventory.clear(i);
-        }
-    }
-
-    private class StackComparator implements Comparator<ItemStack> {
-        @Override
-        public int compare(ItemStack a, ItemStack b) {
-            int result = Integer.compare(b.getMaxStackSize(), a.getMaxStackSize());
-            if (result != 0) return result;
-
-            result = b.getType().compareTo(a.getType());
-            if (result != 0) return result;
-
-            ItemMeta metaA = a.getItemMeta();
-            ItemMeta metaB = b.getItemMeta();
-
-            result = Integer.compare(metaA instanceof Damageable ? ((Damageable) metaA).getDamage() : 0,
-                    metaB instanceof Damageable ? ((Damageable) metaB).getDamage() : 0);
-            if (result != 0) return result;
-
-            result = Integer.compare(b.getAmount(), a.getAmount());
-            return result;
-        }
-    }
-}
-
-
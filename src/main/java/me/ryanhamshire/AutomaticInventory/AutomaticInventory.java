@@ -2,6 +2,11 @@
 
 package me.ryanhamshire.AutomaticInventory;
 
+import me.ryanhamshire.AutomaticInventory.api.DepositPlan;
+import me.ryanhamshire.AutomaticInventory.api.InventorySnapshot;
+import me.ryanhamshire.AutomaticInventory.api.SortPlan;
+import me.ryanhamshire.AutomaticInventory.core.DepositPlanner;
+import me.ryanhamshire.AutomaticInventory.core.DepositTransferPlan;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
@@ -14,11 +19,11 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
-import org.bukkit.inventory.meta.Damageable;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -32,9 +37,25 @@ public class AutomaticInventory extends JavaPlugin {
     //for logging to the console and log file
     public static Logger logger;
     Set<Material> config_noAutoRefillIDs = new HashSet<>();
+    //runs the chest searches for /depositall
+    ScanExecutor scanExecutor;
+    //how long /depositall may spend depositing into chests each tick
+    long config_depositAllTickBudgetNanos;
+    //how far /depositall searches, in chunks around the player's chunk and in blocks above and below their eyes
+    int config_depositAllChunkRadius;
+    int config_depositAllVerticalRadius;
+    //the most blocks one /depositall search may visit
+    int config_depositAllMaxVisitedBlocks;
+    //sorts inventories on behalf of all the events which want them sorted
+    SortCoalescer sortCoalescer;
+    //refills emptied hand slots on behalf of all the events which use items up
+    RefillScheduler refillScheduler;
+    //rate limits sneak-punch quick deposits and remembers their access checks
+    QuickDepositGuard quickDepositGuard;
     //this handles data storage, like player and region data
-    private DataStore dataStore;
-    private Set<Material> config_noAutoDepositIDs = new HashSet<>();
+    DataStore dataStore;
+    //items which are never auto deposited, by material ordinal
+    BitSet config_noAutoDepositTypeIds = new BitSet();
 
 
     static void sendMessage(Player player, Messages message, String... args) {
@@ -56,44 +77,26 @@ public class AutomaticInventory extends JavaPlugin {
     }
 
     static DepositRecord depositMatching(PlayerInventory source, Inventory destination, boolean depositHotbar) {
-        HashSet<String> eligibleSignatures = new HashSet<>();
-        DepositRecord deposits = new DepositRecord();
-        for (int i = 0; i < destination.getSize(); i++) {
-            ItemStack destinationStack = destination.getItem(i);
-            if (destinationStack == null) continue;
+        return depositMatching(source, destination, depositHotbar, AutomaticInventory.instance.config_noAutoDepositTypeIds);
+    }
 
-            String signature = getSignature(destinationStack);
-            eligibleSignatures.add(signature);
-        }
+    static DepositRecord depositMatching(PlayerInventory source, Inventory destination, boolean depositHotbar, BitSet excludedTypeIds) {
+        long start = System.nanoTime();
+        DepositRecord deposits = depositMatchingUntimed(source, destination, depositHotbar, excludedTypeIds);
+        Metrics.depositMatching.record(System.nanoTime() - start);
+        return deposits;
+    }
+
+    //reads both inventories once, plans the deposit on the copies the way Inventory.addItem would place it, then writes each changed slot once
+    private static DepositRecord depositMatchingUntimed(PlayerInventory source, Inventory destination, boolean depositHotbar, BitSet excludedTypeIds) {
         int sourceStartIndex = depositHotbar ? 0 : 9;
-        int sourceSize = Math.min(source.getSize(), 36);
-        for (int i = sourceStartIndex; i < sourceSize; i++) {
-            ItemStack sourceStack = source.getItem(i);
-            if (sourceStack == null) continue;
-
-            if (AutomaticInventory.instance.config_noAutoDepositIDs.contains(sourceStack.getType())) continue;
-
-            String signature = getSignature(sourceStack);
-            int sourceStackSize = sourceStack.getAmount();
-            if (eligibleSignatures.contains(signature)) {
-                HashMap<Integer, ItemStack> notMoved = destination.addItem(sourceStack);
-                if (notMoved.isEmpty()) {
-                    source.clear(i);
-                    deposits.totalItems += sourceStackSize;
-                } else {
-                    int notMovedCount = notMoved.values().iterator().next().getAmount();
-                    int movedCount = sourceStackSize - notMovedCount;
-                    if (movedCount == 0) {
-                        eligibleSignatures.remove(signature);
-                    } else {
-                        int newAmount = sourceStackSize - movedCount;
-                        sourceStack.setAmount(newAmount);
-                        deposits.totalItems += movedCount;
-                    }
-                }
-            }
-        }
+        ItemStackSlots sourceSlots = ItemStackSlots.of(source.getContents(), sourceStartIndex, 36, false);
+        ItemStackSlots destinationSlots = ItemStackSlots.of(destination.getContents(), 0, destination.getSize(), false);
+        DepositTransferPlan plan = DepositPlanner.plan(sourceSlots, sourceStartIndex, Collections.singletonList(destinationSlots), excludedTypeIds);
+        DepositTransfers.apply(source, destination, plan.transfers[0]);
 
+        DepositRecord deposits = new DepositRecord();
+        deposits.totalItems = plan.totals[0];
         if (destination.firstEmpty() == -1) {
             deposits.destinationFull = true;
         }
@@ -101,30 +104,66 @@ public class AutomaticInventory extends JavaPlugin {
         return deposits;
     }
 
-    private static String getSignature(ItemStack stack) {
-        String signature = stack.getType().name();
-        if (stack.getMaxStackSize() > 1) {
-            ItemMeta meta = stack.getItemMeta();
-            if (meta instanceof Damageable) signature += "." + ((Damageable) meta).getDamage();
+    //copies an inventory so it can be planned on from any thread.  main thread only
+    public InventorySnapshot snapshot(Inventory inventory) {
+        checkMainThread();
+        return ItemStackSnapshot.of(inventory);
+    }
+
+    //works out how the snapshotted inventory would be sorted.  safe on any thread
+    public SortPlan planSort(InventorySnapshot snapshot) {
+        return new PlannedSort(ItemStackSnapshot.from(snapshot));
+    }
+
+    //works out what would be deposited from the source into each destination in turn, the way quick deposit matches items.
+    //a player inventory source keeps its hotbar.  safe on any thread
+    public DepositPlan planDeposit(InventorySnapshot source, List<? extends InventorySnapshot> destinations) {
+        List<ItemStackSnapshot> destinationSnapshots = new ArrayList<>(destinations.size());
+        for (InventorySnapshot destination : destinations) {
+            destinationSnapshots.add(ItemStackSnapshot.from(destination));
         }
-        return signature;
+
+        return new PlannedDeposit(ItemStackSnapshot.from(source), destinationSnapshots);
+    }
+
+    //sorts the live inventory as planned, unless it changed since the snapshot was taken.  main thread only
+    public boolean apply(SortPlan plan) {
+        checkMainThread();
+        if (!(plan instanceof PlannedSort)) throw new IllegalArgumentException("Plans must come from AutomaticInventory.planSort");
+
+        return ((PlannedSort) plan).apply();
+    }
+
+    //deposits as planned into each destination in turn, stopping at the first inventory which changed since its snapshot.
+    //returns how many items were moved.  main thread only
+    public int apply(DepositPlan plan) {
+        checkMainThread();
+        if (!(plan instanceof PlannedDeposit)) throw new IllegalArgumentException("Plans must come from AutomaticInventory.planDeposit");
+
+        return ((PlannedDeposit) plan).apply();
+    }
+
+    private static void checkMainThread() {
+        if (!Bukkit.isPrimaryThread()) throw new IllegalStateException("Live inventories may only be used on the main thread");
     }
 
     static boolean preventsChestOpen(Material aboveBlockID) {
-        return aboveBlockID != Material.CHEST && aboveBlockID.isSolid();
+        return MaterialTables.blocksLid(aboveBlockID);
     }
 
     public void onEnable() {
         logger = getLogger();
         logger.info("AutomaticInventory enabled.");
         instance = this;
-        dataStore = new DataStore();
 
         //read configuration settings (note defaults)
         saveDefaultConfig();
 
         FileConfiguration config = getConfig();
 
+        long saveIntervalSeconds = Math.max(1, config.getLong("Storage.Save Interval Seconds", 5));
+        dataStore = new DataStore(config.getString("Storage.Player Data", "yaml"), saveIntervalSeconds);
+
         List<String> noAutoRefillIDs_string = config.getStringList("Auto Refill.Excluded Items");
 
         for (String idString : noAutoRefillIDs_string) {
@@ -134,7 +173,46 @@ public class AutomaticInventory extends JavaPlugin {
         List<String> noAutoDepositIDs_string = config.getStringList("Auto Deposit.Excluded Items");
 
         for (String idString : noAutoDepositIDs_string) {
-            this.config_noAutoDepositIDs.add(Material.valueOf(idString.toUpperCase()));
+            this.config_noAutoDepositTypeIds.set(Material.valueOf(idString.toUpperCase()).ordinal());
+        }
+
+        MaterialTables.configure(
+                config.getStringList("Deposit All.Extra Container Blocks"),
+                config.getStringList("Deposit All.Extra Passable Blocks"));
+
+        this.quickDepositGuard = new QuickDepositGuard(
+                Math.max(1, config.getInt("Quick Deposit.Burst", 4)),
+                Math.max(0.1, config.getDouble("Quick Deposit.Per Second", 2.0)),
+                Math.max(0, config.getLong("Quick Deposit.Access Cache Milliseconds", 2000)));
+
+        int scanThreads = Math.max(1, config.getInt("Deposit All.Scan Threads", 2));
+        int maxQueuedScans = Math.max(1, config.getInt("Deposit All.Max Queued Scans", 64));
+        int parallelSearchThreads = Math.max(0, config.getInt("Deposit All.Parallel Search Threads", 0));
+        this.scanExecutor = new ScanExecutor(scanThreads, maxQueuedScans, parallelSearchThreads);
+        this.config_depositAllTickBudgetNanos = Math.max(0, config.getLong("Deposit All.Tick Budget Microseconds", 2000)) * 1000L;
+        this.config_depositAllChunkRadius = Math.max(0, Math.min(8, config.getInt("Deposit All.Chunk Radius", 1)));
+        this.config_depositAllVerticalRadius = Math.max(1, Math.min(128, config.getInt("Deposit All.Vertical Radius", 10)));
+        this.config_depositAllMaxVisitedBlocks = Math.max(1, config.getInt("Deposit All.Max Visited Blocks", 200000));
+
+        long sortWindowTicks = Math.max(1, config.getLong("Auto Sort.Minimum Ticks Between Sorts", 10));
+        this.sortCoalescer = new SortCoalescer(sortWindowTicks);
+        this.getServer().getScheduler().runTaskTimer(this, this.sortCoalescer, 1L, 1L);
+
+        int predictiveRefillThreshold = Math.max(0, Math.min(64, config.getInt("Auto Refill.Predictive Threshold", 0)));
+        this.refillScheduler = new RefillScheduler(predictiveRefillThreshold);
+        this.getServer().getScheduler().runTaskTimer(this, this.refillScheduler, 1L, 1L);
+
+        long metricsDumpMinutes = config.getLong("Metrics.CSV Dump Interval Minutes", 0);
+        if (metricsDumpMinutes > 0) {
+            File metricsFile = new File(this.getDataFolder(), "metrics.csv");
+            long dumpTicks = metricsDumpMinutes * 60 * 20;
+            this.getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+                try {
+                    Metrics.appendCsv(metricsFile);
+                } catch (IOException e) {
+                    logger.warning("Unable to write " + metricsFile + ": " + e.getMessage());
+                }
+            }, dumpTicks, dumpTicks);
         }
 
         //register for events
@@ -143,9 +221,7 @@ public class AutomaticInventory extends JavaPlugin {
         AIEventHandler aIEventHandler = new AIEventHandler();
         pluginManager.registerEvents(aIEventHandler, this);
 
-        for (Player player : getServer().getOnlinePlayers()) {
-            PlayerData.Preload(player);
-        }
+        PlayerData.PreloadAll(getServer().getOnlinePlayers());
     }
 
     public boolean onCommand(CommandSender sender, Command cmd, String commandLabel, String[] args) {
@@ -156,7 +232,30 @@ public class AutomaticInventory extends JavaPlugin {
             playerData = PlayerData.FromPlayer(player);
         }
 
-        if (cmd.getName().equalsIgnoreCase("autosort") && player != null) {
+        if (cmd.getName().equalsIgnoreCase("debugai")) {
+            sendMessage(player, TextMode.Info, "Sorting wrote " + Metrics.sortSlotWrites.get() + " slots and skipped " + Metrics.sortSlotWritesAvoided.get() + " unchanged slots.",
+                    Metrics.unchangedSorts.get() + " sorts found nothing to change, " + Metrics.skippedSorts.get() + " were skipped because the inventory hadn't changed since its last sort.");
+            return true;
+        } else if (cmd.getName().equalsIgnoreCase("aistats")) {
+            List<String> lines = new ArrayList<>();
+            for (Metrics.Timer timer : Metrics.getTimers()) {
+                long count = timer.getCount();
+                if (count == 0) {
+                    lines.add(timer.name + ": never run");
+                    continue;
+                }
+
+                lines.add(String.format("%s: %d runs, avg %.1fus, p50 %.1fus, p99 %.1fus, max %.1fus",
+                        timer.name, count, timer.getTotalNanos() / 1000.0 / count,
+                        timer.getPercentile(0.5) / 1000.0, timer.getPercentile(0.99) / 1000.0, timer.getMaxNanos() / 1000.0));
+            }
+            for (Metrics.Counter counter : Metrics.getCounters()) {
+                lines.add(counter.name + ": " + counter.get());
+            }
+
+            sendMessage(player, TextMode.Info, lines.toArray(new String[0]));
+            return true;
+        } else if (cmd.getName().equalsIgnoreCase("autosort") && player != null) {
             if (args.length < 1) {
                 sendMessage(player, TextMode.Instr, Messages.AutoSortHelp);
                 return true;
@@ -184,28 +283,32 @@ public class AutomaticInventory extends JavaPlugin {
 
             return true;
         } else if (cmd.getName().equalsIgnoreCase("depositall") && player != null) {
+            //a deposit already pending for this player will pick up the same items, so there's nothing more to do
+            if (this.scanExecutor.isPending(player.getUniqueId())) return true;
 
-            //gather snapshots of adjacent chunks
+            //search every chunk in range for chests, snapshotting chunks on the main thread only once the search reaches them
             Location location = player.getLocation();
             Chunk centerChunk = location.getChunk();
             World world = location.getWorld();
-            ChunkSnapshot[][] snapshots = new ChunkSnapshot[3][3];
-            for (int x = -1; x <= 1; x++) {
-                for (int z = -1; z <= 1; z++) {
-                    Chunk chunk = world.getChunkAt(centerChunk.getX() + x, centerChunk.getZ() + z);
-                    snapshots[x + 1][z + 1] = chunk.getChunkSnapshot();
-                }
+            int radius = this.config_depositAllChunkRadius;
+            int minY = Math.max(0, player.getEyeLocation().getBlockY() - this.config_depositAllVerticalRadius);
+            int maxY = Math.min(world.getMaxHeight() - 1, player.getEyeLocation().getBlockY() + this.config_depositAllVerticalRadius);
+
+            //far above or below the world there are no blocks to search
+            if (minY > maxY) {
+                sendMessage(player, Messages.SuccessfulDepositAll2, "0");
+                return true;
             }
 
-            //create a thread to search those snapshots and create a chain of quick deposit attempts
-            int minY = Math.max(0, player.getEyeLocation().getBlockY() - 10);
-            int maxY = Math.min(world.getMaxHeight(), player.getEyeLocation().getBlockY() + 10);
+            //queue a search from the player's own chunk which will create a chain of quick deposit attempts
             int startY = player.getEyeLocation().getBlockY();
             int startX = player.getEyeLocation().getBlockX();
             int startZ = player.getEyeLocation().getBlockZ();
-            Thread thread = new FindChestsThread(world, snapshots, minY, maxY, startX, startY, startZ, player);
-            thread.setPriority(Thread.MIN_PRIORITY);
-            thread.start();
+            ChestScan scan = new ChestScan(world, centerChunk.getX() - radius, centerChunk.getZ() - radius, radius * 2 + 1, minY, maxY, startX, startY, startZ, player);
+            scan.snapshotRequestedChunks();
+            if (!this.scanExecutor.submit(player.getUniqueId(), scan)) {
+                sendMessage(player, TextMode.Err, Messages.DepositAllBusy);
+            }
 
             return true;
         }
@@ -214,11 +317,12 @@ public class AutomaticInventory extends JavaPlugin {
     }
 
     public void onDisable() {
+        if (this.scanExecutor != null) this.scanExecutor.shutdown();
+
         for (Player player : getServer().getOnlinePlayers()) {
-            PlayerData data = PlayerData.FromPlayer(player);
-            data.saveChanges();
-            data.waitForSaveComplete();
+            PlayerData.FromPlayer(player).saveChanges();
         }
+        this.dataStore.shutdown();
 
         logger.info("AutomaticInventory disabled.");
     }
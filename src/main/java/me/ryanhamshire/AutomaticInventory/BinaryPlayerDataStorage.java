@@ -0,0 +1,118 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.UUID;
+
+//every player in one file of fixed size records: the UUID followed by the flags.
+//records are found through an in-memory index built when the file is opened, updated in place, and new players are appended
+class BinaryPlayerDataStorage implements PlayerDataStorage {
+    private final static int MAGIC = 0x41495044; //"AIPD"
+    private final static int VERSION = 1;
+    private final static int HEADER_SIZE = 8;
+    private final static int RECORD_SIZE = 20;
+
+    private final FileChannel channel;
+    private final HashMap<UUID, Integer> recordIndex = new HashMap<>();
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(RECORD_SIZE);
+    private int recordCount = 0;
+
+    BinaryPlayerDataStorage(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (this.channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            this.writeFully(header, 0);
+        } else {
+            this.readIndex();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.recordIndex.isEmpty();
+    }
+
+    @Override
+    public PlayerDataRecord load(UUID playerID) throws IOException {
+        Integer recordNumber = this.recordIndex.get(playerID);
+        if (recordNumber == null) return null;
+
+        this.recordBuffer.clear();
+        this.readFully(this.recordBuffer, offsetOf(recordNumber));
+        return new PlayerDataRecord(playerID, null, this.recordBuffer.getInt(16));
+    }
+
+    @Override
+    public void save(Collection<PlayerDataRecord> records) throws IOException {
+        for (PlayerDataRecord record : records) {
+            Integer recordNumber = this.recordIndex.get(record.playerID);
+            if (recordNumber == null) {
+                recordNumber = this.recordCount++;
+                this.recordIndex.put(record.playerID, recordNumber);
+            }
+
+            this.recordBuffer.clear();
+            this.recordBuffer.putLong(record.playerID.getMostSignificantBits());
+            this.recordBuffer.putLong(record.playerID.getLeastSignificantBits());
+            this.recordBuffer.putInt(record.flags);
+            this.recordBuffer.flip();
+            this.writeFully(this.recordBuffer, offsetOf(recordNumber));
+        }
+
+        this.channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private static long offsetOf(int recordNumber) {
+        return HEADER_SIZE + (long) recordNumber * RECORD_SIZE;
+    }
+
+    private void readIndex() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        this.readFully(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a player data file, or written by a newer version.");
+        }
+
+        //a record cut short by a crash is ignored, and overwritten by the next new player
+        this.recordCount = (int) ((this.channel.size() - HEADER_SIZE) / RECORD_SIZE);
+        ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        for (int recordNumber = 0; recordNumber < this.recordCount; ) {
+            int batchSize = Math.min(4096, this.recordCount - recordNumber);
+            records.clear();
+            records.limit(batchSize * RECORD_SIZE);
+            this.readFully(records, offsetOf(recordNumber));
+            for (int i = 0; i < batchSize; i++) {
+                UUID playerID = new UUID(records.getLong(), records.getLong());
+                records.getInt();
+                this.recordIndex.put(playerID, recordNumber++);
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = this.channel.read(buffer, position);
+            if (read < 0) throw new EOFException();
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.BlockView;
+import me.ryanhamshire.AutomaticInventory.core.ChestFloodFill;
+import me.ryanhamshire.AutomaticInventory.core.ChestSearch;
+import me.ryanhamshire.AutomaticInventory.core.ParallelChestFloodFill;
+import org.bukkit.*;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+//a /depositall search over chunk snapshots, which then starts a quick deposit chain into the chests it found.
+//the main thread only snapshots chunks the search actually reaches: each round searches what has been snapshotted so far, and
+//when the search ran into chunks without a snapshot the main thread snapshots just those and queues another round
+class ChestScan implements Runnable, BlockView {
+    private World world;
+    //snapshots taken on the main thread which haven't been copied into a band yet, null once copied
+    private ChunkSnapshot[][] chunks;
+    private ChunkBandSnapshot[][] bands;
+    //chunks which weren't loaded when the search reached them, treated as solid
+    private boolean[][] unloaded;
+    //chunks the last round reached without a snapshot.  a parallel search only touches a column's entries here and in chunks and bands
+    //from the task which owns that column
+    private boolean[][] requested;
+    private int minY;
+    private int maxY;
+    private int startX;
+    private int startY;
+    private int startZ;
+    private Player player;
+    private int originChunkX;
+    private int originChunkZ;
+
+    //searches the diameter x diameter chunks from the origin chunk.  call snapshotRequestedChunks on the main thread before the first round
+    ChestScan(World world, int originChunkX, int originChunkZ, int diameter, int minY, int maxY, int startX, int startY, int startZ, Player player) {
+        this.world = world;
+        this.chunks = new ChunkSnapshot[diameter][diameter];
+        this.bands = new ChunkBandSnapshot[diameter][diameter];
+        this.unloaded = new boolean[diameter][diameter];
+        this.requested = new boolean[diameter][diameter];
+        this.minY = minY;
+        this.maxY = maxY;
+        this.originChunkX = originChunkX;
+        this.originChunkZ = originChunkZ;
+        this.startX = startX - originChunkX * 16;
+        this.startY = startY;
+        this.startZ = startZ - originChunkZ * 16;
+        if (this.maxY >= world.getMaxHeight()) this.maxY = world.getMaxHeight() - 1;
+        this.player = player;
+
+        //the first round starts from the player's own chunk
+        this.requested[this.startX >> 4][this.startZ >> 4] = true;
+    }
+
+    @Override
+    public void run() {
+        //the player stays pending while another round or the deposit chain runs, and is released here however else the scan ends
+        boolean handedOff = false;
+        try {
+            long start = System.nanoTime();
+            int width = this.chunks.length * 16;
+            int height = this.maxY - this.minY + 1;
+            int maxVisited = AutomaticInventory.instance.config_depositAllMaxVisitedBlocks;
+            ForkJoinPool searchPool = AutomaticInventory.instance.scanExecutor.getSearchPool();
+            ChestSearch search = searchPool == null
+                    ? ChestFloodFill.forCurrentThread(width, height, maxVisited)
+                    : new ParallelChestFloodFill(searchPool, width, height, maxVisited);
+            int chestCount = search.search(this, this.startX, this.startY - this.minY, this.startZ, Integer.MAX_VALUE);
+            Metrics.depositAllScan.record(System.nanoTime() - start);
+
+            //the plugin may have been disabled while searching
+            if (!AutomaticInventory.instance.isEnabled()) return;
+
+            if (this.hasRequestedChunks()) {
+                Bukkit.getScheduler().runTask(AutomaticInventory.instance, this::nextRound);
+                handedOff = true;
+                return;
+            }
+
+            Queue<Location> chestLocations = new ArrayDeque<>(chestCount);
+            for (int i = 0; i < chestCount; i++) {
+                chestLocations.add(new Location(
+                        this.world,
+                        this.originChunkX * 16 + search.getFoundX(i),
+                        this.minY + search.getFoundY(i),
+                        this.originChunkZ * 16 + search.getFoundZ(i)));
+            }
+
+            QuickDepositChain chain = new QuickDepositChain(chestLocations, new DepositRecord(), player, true);
+            chain.runTaskTimer(AutomaticInventory.instance, 1L, 1L);
+            handedOff = true;
+        } finally {
+            if (!handedOff) AutomaticInventory.instance.scanExecutor.release(this.player.getUniqueId());
+        }
+    }
+
+    //main thread: snapshots the chunks the last round reached and queues the next round for the same, still pending, player
+    private void nextRound() {
+        if (!this.player.isOnline()) {
+            AutomaticInventory.instance.scanExecutor.release(this.player.getUniqueId());
+            return;
+        }
+
+        this.snapshotRequestedChunks();
+        try {
+            AutomaticInventory.instance.scanExecutor.submitTask(Executors.callable(this));
+        } catch (RejectedExecutionException e) {
+            AutomaticInventory.instance.scanExecutor.release(this.player.getUniqueId());
+            AutomaticInventory.sendMessage(this.player, TextMode.Err, Messages.DepositAllBusy);
+        }
+    }
+
+    //main thread only.  unloaded chunks are left out rather than loaded or generated.  returns false when no chunk was requested
+    boolean snapshotRequestedChunks() {
+        boolean snapshotted = false;
+        for (int x = 0; x < this.requested.length; x++) {
+            for (int z = 0; z < this.requested.length; z++) {
+                if (!this.requested[x][z]) continue;
+
+                this.requested[x][z] = false;
+                snapshotted = true;
+                int chunkX = this.originChunkX + x;
+                int chunkZ = this.originChunkZ + z;
+                if (this.world.isChunkLoaded(chunkX, chunkZ)) {
+                    this.chunks[x][z] = this.world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+                    Metrics.depositAllChunkSnapshots.increment();
+                } else {
+                    this.unloaded[x][z] = true;
+                }
+            }
+        }
+
+        return snapshotted;
+    }
+
+    private boolean hasRequestedChunks() {
+        for (boolean[] column : this.requested) {
+            for (boolean requested : column) {
+                if (requested) return true;
+            }
+        }
+
+        return false;
+    }
+
+    //a chunk's band is copied out of its snapshot the first time the search reads it, on this thread rather than the main thread,
+    //and the snapshot is let go.  a chunk without a snapshot is searched as solid this round, and requested for the next one unless
+    //it's known to be unloaded
+    @Override
+    public int getFlags(int x, int y, int z) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        ChunkBandSnapshot band = this.bands[chunkX][chunkZ];
+        if (band == null) band = this.copyBand(chunkX, chunkZ);
+        if (band != null) return band.getFlags(x & 15, y, z & 15);
+
+        if (!this.unloaded[chunkX][chunkZ]) this.requested[chunkX][chunkZ] = true;
+        return UNKNOWN;
+    }
+
+    private ChunkBandSnapshot copyBand(int chunkX, int chunkZ) {
+        ChunkSnapshot chunk = this.chunks[chunkX][chunkZ];
+        if (chunk == null) return null;
+
+        ChunkBandSnapshot band = ChunkBandSnapshot.of(chunk, this.minY, this.maxY);
+        this.bands[chunkX][chunkZ] = band;
+        this.chunks[chunkX][chunkZ] = null;
+        return band;
+    }
+}
@@ -0,0 +1,47 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+//the search flags of one chunk's blocks between two heights, one byte per block.
+//built on the scan thread from a ChunkSnapshot, which the main thread takes, so the search reads a flat array instead of materials
+class ChunkBandSnapshot {
+    private static final byte airFlags = (byte) MaterialTables.flagsOf(Material.AIR);
+
+    private final byte[] flags;
+
+    private ChunkBandSnapshot(byte[] flags) {
+        this.flags = flags;
+    }
+
+    //copies the blocks from minY to maxY (both inclusive).  safe on any thread, the chunk snapshot is already a copy
+    static ChunkBandSnapshot of(ChunkSnapshot chunk, int minY, int maxY) {
+        int height = maxY - minY + 1;
+        byte[] flags = new byte[height << 8];
+        for (int y = 0; y < height; y++) {
+            int blockY = minY + y;
+            int layer = y << 8;
+
+            //a whole empty section is air without reading it
+            if (chunk.isSectionEmpty(blockY >> 4)) {
+                for (int i = 0; i < 256; i++) {
+                    flags[layer | i] = airFlags;
+                }
+                continue;
+            }
+
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    flags[layer | (z << 4) | x] = (byte) MaterialTables.flagsOf(chunk.getBlockType(x, blockY, z));
+                }
+            }
+        }
+
+        return new ChunkBandSnapshot(flags);
+    }
+
+    //y is relative to the bottom of the band
+    int getFlags(int x, int y, int z) {
+        return this.flags[(y << 8) | (z << 4) | x];
+    }
+}
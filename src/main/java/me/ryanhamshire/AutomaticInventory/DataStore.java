@@ -7,17 +7,47 @@ import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 //TODO Why is a config folder not dynamically generated with the file class?
 class DataStore {
     private final static String dataLayerFolderPath = "plugins" + File.separator + "AutomaticInventory";
     final static String playerDataFolderPath = dataLayerFolderPath + File.separator + "PlayerData";
+    private final static String playerDataFilePath = dataLayerFolderPath + File.separator + "PlayerData.bin";
+    private final static String playerDatabasePath = dataLayerFolderPath + File.separator + "PlayerData.db";
     private final static String messagesFilePath = dataLayerFolderPath + File.separator + "messages.yml";
     //in-memory cache for messages
     private HashMap<Messages, String> messages;
 
-    public DataStore() {
+    //all player data is read and written on this one thread, in the order it was asked for
+    private final ScheduledThreadPoolExecutor ioExecutor;
+    //the periodic flush, cancelled at shutdown before the final flush
+    private ScheduledFuture<?> flushTask;
+    private PlayerDataStorage playerDataStorage;
+    //player data waiting for the next flush.  a player saved again before then is only written once
+    private final Set<PlayerData> pendingSaves = new LinkedHashSet<>();
+
+    public DataStore(String storageBackend, long saveIntervalSeconds) {
+        this.ioExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "AutomaticInventory Data");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ioExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
         //ensure data folders exist
         File playerDataFolder = new File(playerDataFolderPath);
         if (!playerDataFolder.exists()) {
@@ -25,6 +55,72 @@ class DataStore {
         }
 
         this.loadMessages();
+        this.openPlayerDataStorage(storageBackend);
+
+        //pending saves are written together in one batch on a timer
+        this.flushTask = this.ioExecutor.scheduleWithFixedDelay(this::flushPendingSaves, saveIntervalSeconds, saveIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void openPlayerDataStorage(String storageBackend) {
+        YamlPlayerDataStorage yamlStorage = new YamlPlayerDataStorage(new File(playerDataFolderPath));
+        this.playerDataStorage = yamlStorage;
+        if (storageBackend.equalsIgnoreCase("yaml")) return;
+
+        try {
+            PlayerDataStorage storage;
+            if (storageBackend.equalsIgnoreCase("binary")) {
+                storage = new BinaryPlayerDataStorage(new File(playerDataFilePath));
+            } else if (storageBackend.equalsIgnoreCase("sqlite")) {
+                storage = new SqlPlayerDataStorage(new File(playerDatabasePath));
+            } else {
+                AutomaticInventory.logger.warning("Unknown player data storage \"" + storageBackend + "\", using YAML.");
+                return;
+            }
+
+            //a new storage starts out with everything from the YAML files
+            if (storage.isEmpty()) {
+                this.ioExecutor.execute(() -> migratePlayerData(yamlStorage, storage));
+            }
+            this.playerDataStorage = storage;
+        } catch (IOException e) {
+            AutomaticInventory.logger.severe("Unable to open " + storageBackend + " player data storage, using YAML instead. " + e.getMessage());
+        }
+    }
+
+    private static void migratePlayerData(YamlPlayerDataStorage from, PlayerDataStorage to) {
+        List<UUID> playerIDs = from.listPlayers();
+        if (playerIDs.isEmpty()) return;
+
+        AutomaticInventory.logger.info("Importing player data for " + playerIDs.size() + " players...");
+        List<PlayerDataRecord> batch = new ArrayList<>();
+        int imported = 0;
+        for (UUID playerID : playerIDs) {
+            try {
+                PlayerDataRecord record = from.load(playerID);
+                if (record != null) batch.add(record);
+            } catch (IOException e) {
+                AutomaticInventory.logger.warning("Skipping unreadable player data for " + playerID + ". " + e.getMessage());
+            }
+
+            if (batch.size() == 1000) {
+                imported += saveBatch(to, batch);
+            }
+        }
+        imported += saveBatch(to, batch);
+        AutomaticInventory.logger.info("Imported player data for " + imported + " players.");
+    }
+
+    private static int saveBatch(PlayerDataStorage storage, List<PlayerDataRecord> batch) {
+        int saved = batch.size();
+        try {
+            storage.save(batch);
+        } catch (IOException e) {
+            AutomaticInventory.logger.severe("Failed to import player data. " + e.getMessage());
+            saved = 0;
+        }
+
+        batch.clear();
+        return saved;
     }
 
     private void loadMessages() {
@@ -42,6 +138,7 @@ class DataStore {
         messages.put(Messages.FailedDepositChestFull2, "That chest is full.");
         messages.put(Messages.SuccessfulDepositAll2, "Deposited {0} items into nearby chests.");
         messages.put(Messages.ChestLidBlocked, "That chest isn't accessible.");
+        messages.put(Messages.DepositAllBusy, "Too many deposits are waiting right now.  Please try again in a moment.");
 
         //load the config file
         FileConfiguration config = YamlConfiguration.loadConfiguration(new File(messagesFilePath));
@@ -68,6 +165,100 @@ class DataStore {
         }
     }
 
+    //loads all of these players with one request to the storage
+    void loadPlayerData(List<PlayerData> playerData) {
+        if (playerData.isEmpty()) return;
+
+        this.ioExecutor.execute(() -> {
+            List<UUID> playerIDs = new ArrayList<>(playerData.size());
+            for (PlayerData data : playerData) {
+                playerIDs.add(data.getPlayerID());
+            }
+
+            Map<UUID, PlayerDataRecord> records = Collections.emptyMap();
+            long start = System.nanoTime();
+            try {
+                records = this.playerDataStorage.loadAll(playerIDs);
+            } catch (Exception e) {
+                StringWriter errors = new StringWriter();
+                e.printStackTrace(new PrintWriter(errors));
+                AutomaticInventory.logger.severe("Failed to load data for " + playerIDs + " " + errors.toString());
+            }
+            Metrics.playerDataLoad.record(System.nanoTime() - start);
+
+            for (PlayerData data : playerData) {
+                data.applyLoadedRecord(records.get(data.getPlayerID()));
+            }
+        });
+    }
+
+    void queueSave(PlayerData playerData) {
+        synchronized (this.pendingSaves) {
+            this.pendingSaves.add(playerData);
+        }
+    }
+
+    private void flushPendingSaves() {
+        List<PlayerData> batch;
+        synchronized (this.pendingSaves) {
+            batch = new ArrayList<>(this.pendingSaves);
+            this.pendingSaves.clear();
+        }
+
+        if (batch.isEmpty()) return;
+
+        List<PlayerDataRecord> records = new ArrayList<>(batch.size());
+        for (PlayerData playerData : batch) {
+            records.add(playerData.takeChangesForSave());
+        }
+
+        long start = System.nanoTime();
+        try {
+            this.playerDataStorage.save(records);
+        } catch (Exception e) {
+            //try again with the next flush
+            for (PlayerData playerData : batch) {
+                playerData.markDirty();
+                this.queueSave(playerData);
+            }
+
+            StringWriter errors = new StringWriter();
+            e.printStackTrace(new PrintWriter(errors));
+            AutomaticInventory.logger.severe("Failed to save player data for " + batch.size() + " players " + errors.toString());
+        }
+        Metrics.playerDataSave.record(System.nanoTime() - start);
+    }
+
+    //writes out everything still pending and stops the data thread
+    //waits for the last flush and the close to finish before shutting the executor down, since shutdown() drops queued tasks
+    void shutdown() {
+        if (this.flushTask != null) this.flushTask.cancel(false);
+
+        try {
+            this.ioExecutor.submit(this::flushPendingSaves).get();
+            this.ioExecutor.submit(() -> {
+                try {
+                    this.playerDataStorage.close();
+                } catch (IOException e) {
+                    AutomaticInventory.logger.severe("Failed to close player data storage. " + e.getMessage());
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            AutomaticInventory.logger.severe("Failed to save player data on shutdown. " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.ioExecutor.shutdown();
+        try {
+            if (!this.ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                AutomaticInventory.logger.severe("Timed out waiting for player data to save.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     synchronized String getMessage(Messages messageID, String... args) {
         String message = messages.get(messageID);
 
@@ -0,0 +1,48 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+//writes a planned list of (source slot, destination slot, amount) transfers back to the live inventories.
+//the amounts are totalled per slot first, so each slot is read and written once however many transfers touch it
+class DepositTransfers {
+    static void apply(Inventory source, Inventory destination, int[] transfers) {
+        int[] taken = new int[source.getSize()];
+        int[] added = new int[destination.getSize()];
+        //the first source slot feeding each destination slot, for copying the stack into slots which start out empty
+        int[] firstSources = new int[destination.getSize()];
+        for (int i = 0; i < transfers.length; i += 3) {
+            int sourceSlot = transfers[i];
+            int destinationSlot = transfers[i + 1];
+            if (added[destinationSlot] == 0) firstSources[destinationSlot] = sourceSlot;
+            taken[sourceSlot] += transfers[i + 2];
+            added[destinationSlot] += transfers[i + 2];
+        }
+
+        //fill the destination before emptying any source slot it copies from
+        for (int slot = 0; slot < added.length; slot++) {
+            if (added[slot] == 0) continue;
+
+            ItemStack destinationStack = destination.getItem(slot);
+            if (destinationStack == null) {
+                destinationStack = source.getItem(firstSources[slot]).clone();
+                destinationStack.setAmount(added[slot]);
+            } else {
+                destinationStack.setAmount(destinationStack.getAmount() + added[slot]);
+            }
+            destination.setItem(slot, destinationStack);
+        }
+
+        for (int slot = 0; slot < taken.length; slot++) {
+            if (taken[slot] == 0) continue;
+
+            ItemStack sourceStack = source.getItem(slot);
+            int remaining = sourceStack.getAmount() - taken[slot];
+            if (remaining == 0) {
+                source.clear(slot);
+            } else {
+                sourceStack.setAmount(remaining);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.DoubleChestInventory;
+import org.bukkit.inventory.Inventory;
+
+import java.util.UUID;
+
+//the block a container's inventory belongs to, or the owner of an ender chest inventory, so it can be looked up again through any of
+//the Inventory objects Bukkit hands out for it.  every getInventory call on a block and every getEnderChest call wraps the inventory
+//in a new object, so the Inventory itself is no good as a key
+final class InventoryKey {
+    //the world of a block, or the owner of an ender chest
+    private final UUID id;
+    private final boolean enderChest;
+    private final int x;
+    private final int y;
+    private final int z;
+
+    private InventoryKey(UUID id, boolean enderChest, int x, int y, int z) {
+        this.id = id;
+        this.enderChest = enderChest;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    //a double chest is keyed on its left half.  returns null for player inventories, which keep the same Inventory object,
+    //and for inventories without a location or owner
+    static InventoryKey of(Inventory inventory) {
+        InventoryType type = inventory.getType();
+        if (type == InventoryType.PLAYER) return null;
+        if (type == InventoryType.ENDER_CHEST) {
+            if (!(inventory.getHolder() instanceof HumanEntity)) return null;
+
+            return new InventoryKey(((HumanEntity) inventory.getHolder()).getUniqueId(), true, 0, 0, 0);
+        }
+
+        if (inventory instanceof DoubleChestInventory) inventory = ((DoubleChestInventory) inventory).getLeftSide();
+        Location location = inventory.getLocation();
+        if (location == null) return null;
+
+        World world = location.getWorld();
+        if (world == null) return null;
+
+        return new InventoryKey(world.getUID(), false, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    //an ender chest isn't in any chunk
+    boolean isIn(Chunk chunk) {
+        return !this.enderChest && this.x >> 4 == chunk.getX() && this.z >> 4 == chunk.getZ() && this.id.equals(chunk.getWorld().getUID());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof InventoryKey)) return false;
+
+        InventoryKey key = (InventoryKey) other;
+        return this.enderChest == key.enderChest && this.x == key.x && this.y == key.y && this.z == key.z && this.id.equals(key.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((this.x * 31 + this.y) * 31 + this.z) * 31 + this.id.hashCode();
+    }
+}
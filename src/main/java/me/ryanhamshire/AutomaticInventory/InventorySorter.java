@@ -0,0 +1,77 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.InventorySort;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+//sorts by max stack size, then type, damage and amount, merging similar stacks along the way.
+//every stack is read once into an ItemStackSlots view, so sorting never touches the item meta and each stack's meta is read at most once
+class InventorySorter implements Runnable {
+    private Inventory inventory;
+    private int startIndex;
+
+    InventorySorter(Inventory inventory, int startIndex) {
+        this.inventory = inventory;
+        this.startIndex = startIndex;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        this.sort();
+        Metrics.sort.record(System.nanoTime() - start);
+    }
+
+    private void sort() {
+        ItemStack[] contents = this.inventory.getContents();
+        int inventorySize = contents.length;
+        if (this.inventory.getType() == InventoryType.PLAYER) inventorySize = Math.min(contents.length, 36);
+        int rangeSize = Math.max(inventorySize - this.startIndex, 0);
+
+        ItemStackSlots slots = ItemStackSlots.of(contents, this.startIndex, inventorySize, false);
+
+        //nothing has changed since this inventory was last sorted
+        if (SortedInventoryCache.isUnchanged(this.inventory, InventorySort.fingerprint(slots, this.startIndex, inventorySize))) {
+            Metrics.skippedSorts.increment();
+            return;
+        }
+
+        InventorySort.Result sorted = InventorySort.sort(slots, this.startIndex, inventorySize);
+        int writes = writeBack(this.inventory, slots, sorted, this.startIndex, inventorySize, false);
+
+        SortedInventoryCache.remember(this.inventory, sorted.fingerprint);
+        if (writes > 0) MaterialSlotIndex.invalidate(this.inventory);
+
+        Metrics.sortSlotWrites.add(writes);
+        Metrics.sortSlotWritesAvoided.add(rangeSize - writes);
+        if (writes == 0) Metrics.unchangedSorts.increment();
+    }
+
+    //writes a sort of slots from (inclusive) to to (exclusive) back to the inventory, only touching the slots which differ from what the inventory
+    //already holds, since every write marks the container dirty and updates viewers.  copies the stacks instead of reusing them when they
+    //belong to a snapshot.  returns how many slots were written
+    static int writeBack(Inventory inventory, ItemStackSlots slots, InventorySort.Result sorted, int from, int to, boolean copyStacks) {
+        int writes = 0;
+        for (int slot = from; slot < to; slot++) {
+            int i = slot - from;
+            if (i < sorted.count) {
+                int origin = sorted.origins[i];
+                int amount = sorted.amounts[i];
+                if (origin == slot && slots.getAmount(origin) == amount) continue;
+
+                ItemStack stack = slots.getStack(origin);
+                if (copyStacks) stack = stack.clone();
+                if (slots.getAmount(origin) != amount) stack.setAmount(amount);
+                inventory.setItem(slot, stack);
+            } else {
+                if (slots.getAmount(slot) == 0) continue;
+
+                inventory.clear(slot);
+            }
+            writes++;
+        }
+
+        return writes;
+    }
+}
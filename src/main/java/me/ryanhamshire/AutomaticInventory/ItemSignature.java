@@ -0,0 +1,35 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.ItemKeys;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+
+//compact item signatures for matching deposits, as laid out by ItemKeys.signature
+class ItemSignature {
+    //max stack sizes by material ordinal, which decide whether the damage value is part of the signature
+    private static final int[] maxStackSizes;
+
+    static {
+        Material[] materials = Material.values();
+        maxStackSizes = new int[materials.length];
+        for (Material material : materials) {
+            maxStackSizes[material.ordinal()] = material.getMaxStackSize();
+        }
+    }
+
+    static long of(ItemStack stack) {
+        int typeId = stack.getType().ordinal();
+        int maxStackSize = maxStackSizes[typeId];
+        return ItemKeys.signature(typeId, maxStackSize, maxStackSize > 1 ? damageOf(stack) : 0);
+    }
+
+    //only clones the item meta when the stack actually has some
+    static int damageOf(ItemStack stack) {
+        if (!stack.hasItemMeta()) return 0;
+
+        ItemMeta meta = stack.getItemMeta();
+        return meta instanceof Damageable ? ((Damageable) meta).getDamage() : 0;
+    }
+}
@@ -0,0 +1,103 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.SlotView;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+//a SlotView over Bukkit stacks, with everything the core algorithms ask for read once up front.
+//when copied, the stacks are private clones which can be read from any thread and must not be modified
+class ItemStackSlots implements SlotView {
+    private final ItemStack[] stacks;
+    private final int[] amounts;
+    private final int[] typeIds;
+    private final int[] maxStackSizes;
+    private final int[] damages;
+
+    private ItemStackSlots(int size) {
+        this.stacks = new ItemStack[size];
+        this.amounts = new int[size];
+        this.typeIds = new int[size];
+        this.maxStackSizes = new int[size];
+        this.damages = new int[size];
+    }
+
+    //reads slots from (inclusive) to to (exclusive) of the contents, leaving the slots below from empty
+    static ItemStackSlots of(ItemStack[] contents, int from, int to, boolean copy) {
+        ItemStackSlots slots = new ItemStackSlots(Math.min(to, contents.length));
+        for (int i = from; i < slots.stacks.length; i++) {
+            ItemStack stack = contents[i];
+            if (stack == null || stack.getAmount() <= 0) continue;
+
+            Material type = stack.getType();
+            slots.stacks[i] = copy ? stack.clone() : stack;
+            slots.amounts[i] = stack.getAmount();
+            slots.typeIds[i] = type.ordinal();
+            slots.maxStackSizes[i] = type.getMaxStackSize();
+            slots.damages[i] = ItemSignature.damageOf(stack);
+        }
+
+        return slots;
+    }
+
+    //copies the first size slots of the inventory
+    static ItemStackSlots copyOf(Inventory inventory, int size) {
+        return of(inventory.getContents(), 0, size, true);
+    }
+
+    ItemStack getStack(int slot) {
+        return this.stacks[slot];
+    }
+
+    @Override
+    public int size() {
+        return this.stacks.length;
+    }
+
+    @Override
+    public int getAmount(int slot) {
+        return this.amounts[slot];
+    }
+
+    @Override
+    public int getMaxStackSize(int slot) {
+        return this.maxStackSizes[slot];
+    }
+
+    @Override
+    public int getTypeId(int slot) {
+        return this.typeIds[slot];
+    }
+
+    @Override
+    public int getDamage(int slot) {
+        return this.damages[slot];
+    }
+
+    @Override
+    public boolean isSimilar(int slot, SlotView other, int otherSlot) {
+        if (other instanceof ItemStackSlots) {
+            return this.stacks[slot].isSimilar(((ItemStackSlots) other).stacks[otherSlot]);
+        }
+
+        return this.typeIds[slot] == other.getTypeId(otherSlot) && this.damages[slot] == other.getDamage(otherSlot);
+    }
+
+    //whether the live inventory still holds exactly what was read
+    boolean matches(Inventory inventory) {
+        return this.matches(inventory, this.amounts, 0, this.stacks.length);
+    }
+
+    //whether slots from (inclusive) to to (exclusive) of the live inventory hold the stacks that were read with the expected amounts,
+    //where an expected amount of zero means the slot should be empty
+    boolean matches(Inventory inventory, int[] expectedAmounts, int from, int to) {
+        for (int i = from; i < to; i++) {
+            ItemStack liveStack = inventory.getItem(i);
+            int liveAmount = liveStack == null ? 0 : liveStack.getAmount();
+            if (liveAmount != expectedAmounts[i]) return false;
+            if (liveAmount > 0 && !liveStack.isSimilar(this.stacks[i])) return false;
+        }
+
+        return true;
+    }
+}
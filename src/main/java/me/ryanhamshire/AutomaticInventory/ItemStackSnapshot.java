@@ -0,0 +1,45 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.api.InventorySnapshot;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+//the API's InventorySnapshot: a copied ItemStackSlots view, plus the inventory it came from so plans can be applied to it later
+class ItemStackSnapshot implements InventorySnapshot {
+    final Inventory inventory;
+    final ItemStackSlots slots;
+    //where sorting and depositing start, which leaves a player's hotbar alone
+    final int startIndex;
+
+    private ItemStackSnapshot(Inventory inventory, ItemStackSlots slots, int startIndex) {
+        this.inventory = inventory;
+        this.slots = slots;
+        this.startIndex = startIndex;
+    }
+
+    static ItemStackSnapshot of(Inventory inventory) {
+        if (inventory.getType() == InventoryType.PLAYER) {
+            return new ItemStackSnapshot(inventory, ItemStackSlots.copyOf(inventory, 36), 9);
+        }
+
+        return new ItemStackSnapshot(inventory, ItemStackSlots.copyOf(inventory, inventory.getSize()), 0);
+    }
+
+    static ItemStackSnapshot from(InventorySnapshot snapshot) {
+        if (!(snapshot instanceof ItemStackSnapshot)) throw new IllegalArgumentException("Snapshots must come from AutomaticInventory.snapshot");
+
+        return (ItemStackSnapshot) snapshot;
+    }
+
+    @Override
+    public int getSize() {
+        return this.slots.size();
+    }
+
+    @Override
+    public ItemStack getItem(int slot) {
+        ItemStack stack = this.slots.getStack(slot);
+        return stack == null ? null : stack.clone();
+    }
+}
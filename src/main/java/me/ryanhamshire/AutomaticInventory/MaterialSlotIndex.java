@@ -0,0 +1,84 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+//which of a player's 36 main slots hold each material, as a slot bitmask per material ordinal, so auto-refill only reads slots which might match.
+//events which may add items to the inventory mark the index stale, and it's rebuilt on the next lookup.  bits for slots which have since
+//emptied are only cleared when a lookup finds them wrong, so callers must check each candidate slot.
+//indexes are keyed on the PlayerInventory object, which stays the same for as long as the player is online,
+//unlike container inventories which come wrapped in a new object each time.  only used on the main thread
+class MaterialSlotIndex {
+    private static final int SLOTS = 36;
+    private static final Map<PlayerInventory, MaterialSlotIndex> indexes = new WeakHashMap<>();
+
+    private final long[] slotMasks = new long[Material.values().length];
+    //the material ordinal each slot is indexed under, or -1
+    private final int[] slotTypes = new int[SLOTS];
+    private boolean stale = true;
+
+    private MaterialSlotIndex() {
+        Arrays.fill(this.slotTypes, -1);
+    }
+
+    static MaterialSlotIndex of(PlayerInventory inventory) {
+        return indexes.computeIfAbsent(inventory, key -> new MaterialSlotIndex());
+    }
+
+    //anything other than a player inventory has no index
+    static void invalidate(Inventory inventory) {
+        if (!(inventory instanceof PlayerInventory)) return;
+
+        MaterialSlotIndex index = indexes.get(inventory);
+        if (index != null) index.stale = true;
+    }
+
+    static void forget(PlayerInventory inventory) {
+        indexes.remove(inventory);
+    }
+
+    //returns whether the index had to be rebuilt
+    boolean rebuildIfStale(PlayerInventory inventory) {
+        if (!this.stale) return false;
+
+        this.rebuild(inventory);
+        return true;
+    }
+
+    void rebuild(PlayerInventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            ItemStack stack = slot < contents.length ? contents[slot] : null;
+            this.update(slot, stack == null ? null : stack.getType());
+        }
+
+        this.stale = false;
+        Metrics.refillIndexRebuilds.increment();
+    }
+
+    //a bitmask of the slots which may hold the material
+    long getSlots(Material type) {
+        return this.slotMasks[type.ordinal()];
+    }
+
+    //records what a slot holds now, where null means it's empty.  slots outside the main inventory are ignored
+    void update(int slot, Material type) {
+        if (slot < 0 || slot >= SLOTS) return;
+
+        int previousType = this.slotTypes[slot];
+        if (previousType >= 0) this.slotMasks[previousType] &= ~(1L << slot);
+
+        if (type == null) {
+            this.slotTypes[slot] = -1;
+        } else {
+            this.slotTypes[slot] = type.ordinal();
+            this.slotMasks[type.ordinal()] |= 1L << slot;
+        }
+    }
+}
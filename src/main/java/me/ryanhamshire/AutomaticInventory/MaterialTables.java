@@ -0,0 +1,74 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.core.BlockView;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryType;
+
+import java.util.BitSet;
+import java.util.List;
+
+//block and inventory properties looked up by ordinal, so the chest search and inventory checks never scan material names.
+//the defaults are worked out when the class loads, and configure() adds the extras from config.yml during onEnable,
+//before any scan thread reads them
+class MaterialTables {
+    private static final BitSet containers = new BitSet();
+    private static final BitSet passable = new BitSet();
+    //blocks which stop a chest below them from opening
+    private static final BitSet lidBlocking = new BitSet();
+    private static final boolean[] sortableInventoryTypes = new boolean[InventoryType.values().length];
+
+    static {
+        for (Material material : Material.values()) {
+            String name = material.name();
+            int ordinal = material.ordinal();
+            if (material == Material.CHEST || material == Material.TRAPPED_CHEST || material == Material.ENDER_CHEST || name.contains("SHULKER")) {
+                containers.set(ordinal);
+            }
+            if (material == Material.AIR || material == Material.CHEST || material == Material.TRAPPED_CHEST || material == Material.HOPPER || name.contains("SIGN")) {
+                passable.set(ordinal);
+            }
+            if (material != Material.CHEST && material.isSolid()) {
+                lidBlocking.set(ordinal);
+            }
+        }
+
+        sortableInventoryTypes[InventoryType.CHEST.ordinal()] = true;
+        sortableInventoryTypes[InventoryType.ENDER_CHEST.ordinal()] = true;
+        sortableInventoryTypes[InventoryType.SHULKER_BOX.ordinal()] = true;
+    }
+
+    static void configure(List<String> extraContainers, List<String> extraPassable) {
+        for (String name : extraContainers) {
+            containers.set(Material.valueOf(name.toUpperCase()).ordinal());
+        }
+        for (String name : extraPassable) {
+            passable.set(Material.valueOf(name.toUpperCase()).ordinal());
+        }
+    }
+
+    static boolean isContainer(Material type) {
+        return containers.get(type.ordinal());
+    }
+
+    static boolean isPassable(Material type) {
+        return passable.get(type.ordinal());
+    }
+
+    static boolean blocksLid(Material type) {
+        return lidBlocking.get(type.ordinal());
+    }
+
+    //the same properties as BlockView flags, for the core chest search
+    static int flagsOf(Material type) {
+        int ordinal = type.ordinal();
+        int flags = 0;
+        if (containers.get(ordinal)) flags |= BlockView.CONTAINER;
+        if (passable.get(ordinal)) flags |= BlockView.PASSABLE;
+        if (lidBlocking.get(ordinal)) flags |= BlockView.LID_BLOCKING;
+        return flags;
+    }
+
+    static boolean isSortableInventoryType(InventoryType type) {
+        return sortableInventoryTypes[type.ordinal()];
+    }
+}
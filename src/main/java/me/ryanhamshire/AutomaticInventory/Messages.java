@@ -14,4 +14,5 @@ public enum Messages {
     FailedDepositChestFull2,
     SuccessfulDepositAll2,
     ChestLidBlocked,
+    DepositAllBusy,
 }
@@ -0,0 +1,181 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//timings and counts for the plugin's hot paths.  recording never allocates or locks, so it's safe from the main thread,
+//the scan threads and the data thread alike
+class Metrics {
+    private static final Map<String, Timer> timers = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final Map<String, Counter> counters = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    static final Timer sort = timer("sort");
+    static final Timer depositMatching = timer("depositMatching");
+    static final Timer depositAllScan = timer("depositAllScan");
+    static final Timer depositAllStep = timer("depositAllStep");
+    static final Timer autoRefill = timer("autoRefill");
+    static final Timer playerDataLoad = timer("playerDataLoad");
+    static final Timer playerDataSave = timer("playerDataSave");
+
+    //sort write-back statistics
+    static final Counter sortSlotWrites = counter("sortSlotWrites");
+    static final Counter sortSlotWritesAvoided = counter("sortSlotWritesAvoided");
+    static final Counter unchangedSorts = counter("unchangedSorts");
+    static final Counter skippedSorts = counter("skippedSorts");
+    //how often auto-refill had to read a whole inventory to rebuild its slot index
+    static final Counter refillIndexRebuilds = counter("refillIndexRebuilds");
+    //chunks the main thread snapshotted because a /depositall search reached them
+    static final Counter depositAllChunkSnapshots = counter("depositAllChunkSnapshots");
+    //quick deposits turned away by the rate limit, and protection checks fired through the fake interact event or answered from cache
+    static final Counter quickDepositsThrottled = counter("quickDepositsThrottled");
+    static final Counter accessChecksFired = counter("accessChecksFired");
+    static final Counter accessChecksAvoided = counter("accessChecksAvoided");
+
+    static Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    static List<Timer> getTimers() {
+        synchronized (timers) {
+            return new ArrayList<>(timers.values());
+        }
+    }
+
+    static List<Counter> getCounters() {
+        synchronized (counters) {
+            return new ArrayList<>(counters.values());
+        }
+    }
+
+    //appends one row per timer and counter, writing the header first when the file is new
+    static void appendCsv(File file) throws IOException {
+        boolean newFile = !file.exists();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file, true))) {
+            if (newFile) writer.println("time,name,count,total_ns,max_ns,p50_ns,p90_ns,p99_ns");
+
+            long now = System.currentTimeMillis();
+            for (Timer timer : getTimers()) {
+                writer.println(now + "," + timer.name + "," + timer.getCount() + "," + timer.getTotalNanos() + "," + timer.getMaxNanos() + ","
+                        + timer.getPercentile(0.5) + "," + timer.getPercentile(0.9) + "," + timer.getPercentile(0.99));
+            }
+            for (Counter counter : getCounters()) {
+                writer.println(now + "," + counter.name + "," + counter.get() + ",,,,,");
+            }
+        }
+    }
+
+    static class Counter {
+        final String name;
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        void add(long amount) {
+            this.value.addAndGet(amount);
+        }
+
+        void increment() {
+            this.value.incrementAndGet();
+        }
+
+        long get() {
+            return this.value.get();
+        }
+    }
+
+    //counts, totals and a log-linear latency histogram: exact below 16ns, then 8 buckets per power of two,
+    //so any recorded value is reported within 12.5%
+    static class Timer {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+        private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+        final String name;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        //use as long start = System.nanoTime(); ... timer.record(System.nanoTime() - start);
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+
+            this.count.incrementAndGet();
+            this.totalNanos.addAndGet(nanos);
+            long max = this.maxNanos.get();
+            while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+                max = this.maxNanos.get();
+            }
+            this.buckets.incrementAndGet(bucketOf(nanos));
+        }
+
+        long getCount() {
+            return this.count.get();
+        }
+
+        long getTotalNanos() {
+            return this.totalNanos.get();
+        }
+
+        long getMaxNanos() {
+            return this.maxNanos.get();
+        }
+
+        //the upper bound of the bucket holding the given fraction of recordings
+        long getPercentile(double fraction) {
+            long total = 0;
+            long[] snapshot = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                snapshot[i] = this.buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) return 0;
+
+            long target = Math.max(1, (long) Math.ceil(total * fraction));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += snapshot[i];
+                if (seen >= target) return Math.min(upperBoundOf(i), this.getMaxNanos());
+            }
+
+            return this.getMaxNanos();
+        }
+
+        private static int bucketOf(long value) {
+            if (value < LINEAR_LIMIT) return (int) value;
+
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long upperBoundOf(int bucket) {
+            if (bucket < LINEAR_LIMIT) return bucket;
+
+            int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+            int subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+            long lowerBound = (1L << exponent) | ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+            return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
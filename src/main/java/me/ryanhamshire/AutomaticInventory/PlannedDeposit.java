@@ -0,0 +1,79 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.api.DepositPlan;
+import me.ryanhamshire.AutomaticInventory.api.InventorySnapshot;
+import me.ryanhamshire.AutomaticInventory.core.DepositPlanner;
+import me.ryanhamshire.AutomaticInventory.core.DepositTransferPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//the API's DepositPlan: a DepositTransferPlan between snapshots, applied destination by destination while the inventories still match
+class PlannedDeposit implements DepositPlan {
+    private final ItemStackSnapshot source;
+    private final List<ItemStackSnapshot> destinations;
+    private final DepositTransferPlan plan;
+    private final int totalItems;
+
+    PlannedDeposit(ItemStackSnapshot source, List<ItemStackSnapshot> destinations) {
+        this.source = source;
+        this.destinations = destinations;
+
+        List<ItemStackSlots> destinationSlots = new ArrayList<>(destinations.size());
+        for (ItemStackSnapshot destination : destinations) {
+            destinationSlots.add(destination.slots);
+        }
+        this.plan = DepositPlanner.plan(source.slots, source.startIndex, destinationSlots, AutomaticInventory.instance.config_noAutoDepositTypeIds);
+
+        int totalItems = 0;
+        for (int total : this.plan.totals) {
+            totalItems += total;
+        }
+        this.totalItems = totalItems;
+    }
+
+    @Override
+    public InventorySnapshot getSource() {
+        return this.source;
+    }
+
+    @Override
+    public int getDestinationCount() {
+        return this.destinations.size();
+    }
+
+    @Override
+    public InventorySnapshot getDestination(int index) {
+        return this.destinations.get(index);
+    }
+
+    @Override
+    public int getItemsMovedTo(int index) {
+        return this.plan.totals[index];
+    }
+
+    @Override
+    public int getTotalItems() {
+        return this.totalItems;
+    }
+
+    //main thread only.  stops at the first destination which no longer matches its snapshot, since every later one
+    //was planned on the assumption the earlier ones went through.  returns how many items were moved
+    int apply() {
+        ItemStackSlots sourceSlots = this.source.slots;
+        int movedItems = 0;
+        for (int d = 0; d < this.destinations.size(); d++) {
+            int[] transfers = this.plan.transfers[d];
+            if (transfers.length == 0) continue;
+
+            ItemStackSnapshot destination = this.destinations.get(d);
+            if (!sourceSlots.matches(this.source.inventory, this.plan.sourceAmountsBefore[d], this.source.startIndex, sourceSlots.size())) break;
+            if (!destination.slots.matches(destination.inventory)) break;
+
+            DepositTransfers.apply(this.source.inventory, destination.inventory, transfers);
+            movedItems += this.plan.totals[d];
+        }
+
+        return movedItems;
+    }
+}
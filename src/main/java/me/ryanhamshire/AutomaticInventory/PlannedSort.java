@@ -0,0 +1,62 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.api.InventorySnapshot;
+import me.ryanhamshire.AutomaticInventory.api.SortPlan;
+import me.ryanhamshire.AutomaticInventory.core.InventorySort;
+import org.bukkit.inventory.ItemStack;
+
+//the API's SortPlan: an InventorySort result for a snapshot, applied to the live inventory only if it still matches the snapshot
+class PlannedSort implements SortPlan {
+    private final ItemStackSnapshot snapshot;
+    private final InventorySort.Result result;
+    private final boolean changed;
+
+    PlannedSort(ItemStackSnapshot snapshot) {
+        this.snapshot = snapshot;
+        ItemStackSlots slots = snapshot.slots;
+        this.result = InventorySort.sort(slots, snapshot.startIndex, slots.size());
+
+        boolean changed = false;
+        for (int slot = snapshot.startIndex; slot < slots.size() && !changed; slot++) {
+            int i = slot - snapshot.startIndex;
+            if (i < this.result.count) {
+                changed = this.result.origins[i] != slot || this.result.amounts[i] != slots.getAmount(slot);
+            } else {
+                changed = slots.getAmount(slot) > 0;
+            }
+        }
+        this.changed = changed;
+    }
+
+    @Override
+    public InventorySnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    @Override
+    public ItemStack getItem(int slot) {
+        int i = slot - this.snapshot.startIndex;
+        if (i < 0) return this.snapshot.getItem(slot);
+        if (i >= this.result.count) return null;
+
+        ItemStack stack = this.snapshot.slots.getStack(this.result.origins[i]).clone();
+        stack.setAmount(this.result.amounts[i]);
+        return stack;
+    }
+
+    @Override
+    public boolean isChanged() {
+        return this.changed;
+    }
+
+    //main thread only
+    boolean apply() {
+        ItemStackSlots slots = this.snapshot.slots;
+        if (!slots.matches(this.snapshot.inventory)) return false;
+
+        int writes = InventorySorter.writeBack(this.snapshot.inventory, slots, this.result, this.snapshot.startIndex, slots.size(), true);
+        SortedInventoryCache.remember(this.snapshot.inventory, this.result.fingerprint);
+        if (writes > 0) MaterialSlotIndex.invalidate(this.snapshot.inventory);
+        return true;
+    }
+}
@@ -2,15 +2,13 @@
 
 package me.ryanhamshire.AutomaticInventory;
 
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.metadata.MetadataValue;
 
-import java.io.File;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,175 +16,115 @@ import java.util.UUID;
 //TODO Spaces in keys
 class PlayerData {
     private final static String METADATA_TAG = "AI_PlayerData";
-    int firstEmptySlot = -1;
-    private Thread loadingThread;
-    private Thread savingThread;
+
+    //bits of the flags field
+    final static int SORT_CHESTS = 1;
+    final static int SORT_INVENTORY = 1 << 1;
+    final static int USED_QUICK_DEPOSIT = 1 << 2;
+    final static int GOT_CHEST_SORT_INFO = 1 << 3;
+    final static int GOT_INVENTORY_SORT_INFO = 1 << 4;
+    final static int GOT_RESTACK_INFO = 1 << 5;
+    final static int DEFAULT_FLAGS = SORT_CHESTS | SORT_INVENTORY;
+
     private String playerName;
-    private boolean gotChestSortInfo = false;
-    private boolean gotInventorySortInfo = false;
-    private boolean gotRestackInfo = false;
-    private boolean usedQuickDeposit = false;
     private UUID playerID;
-    private boolean isDirty = false;
-    private boolean sortChests = true;
-    private boolean sortInventory = true;
+
+    //written on the main thread and by the loader, read by the data store's thread when saving
+    private volatile int flags = DEFAULT_FLAGS;
+    private volatile boolean isDirty = false;
+    private boolean loadComplete = false;
+    //flags the player changed before loading finished, which the loaded values mustn't overwrite
+    private int changedBeforeLoad = 0;
 
     private PlayerData(Player player) {
         this.playerName = player.getName();
         this.playerID = player.getUniqueId();
-        this.loadingThread = new Thread(new DataLoader());
-        this.loadingThread.start();
         player.setMetadata(METADATA_TAG, new FixedMetadataValue(AutomaticInventory.instance, this));
     }
 
     static void Preload(Player player) {
-        new PlayerData(player);
+        FromPlayer(player);
+    }
+
+    //loads data for many players with a single request to the storage
+    static void PreloadAll(Collection<? extends Player> players) {
+        List<PlayerData> playerData = new ArrayList<>(players.size());
+        for (Player player : players) {
+            playerData.add(new PlayerData(player));
+        }
+
+        AutomaticInventory.instance.dataStore.loadPlayerData(playerData);
     }
 
     static PlayerData FromPlayer(Player player) {
         List<MetadataValue> data = player.getMetadata(METADATA_TAG);
         if (data == null || data.isEmpty()) {
-            return new PlayerData(player);
+            PlayerData playerData = new PlayerData(player);
+            AutomaticInventory.instance.dataStore.loadPlayerData(Collections.singletonList(playerData));
+            return playerData;
         } else {
             return (PlayerData) (data.get(0).value());
         }
     }
 
     boolean isUsedQuickDeposit() {
-        return usedQuickDeposit;
+        return (flags & USED_QUICK_DEPOSIT) != 0;
     }
 
     void setUsedQuickDeposit() {
-        this.usedQuickDeposit = true;
-        this.isDirty = true;
+        this.setFlag(USED_QUICK_DEPOSIT, true);
     }
 
+    //until loading finishes this reports the default
     boolean isSortChests() {
-        this.waitForLoadComplete();
-        return sortChests;
+        return (flags & SORT_CHESTS) != 0;
     }
 
     void setSortChests(boolean sortChests) {
-        this.isDirty = true;
-        this.sortChests = sortChests;
+        this.setFlag(SORT_CHESTS, sortChests);
     }
 
+    //until loading finishes this reports the default
     boolean isSortInventory() {
-        this.waitForLoadComplete();
-        return sortInventory;
+        return (flags & SORT_INVENTORY) != 0;
     }
 
     void setSortInventory(boolean sortInventory) {
+        this.setFlag(SORT_INVENTORY, sortInventory);
+    }
+
+    private synchronized void setFlag(int flag, boolean value) {
+        this.flags = value ? this.flags | flag : this.flags & ~flag;
         this.isDirty = true;
-        this.sortInventory = sortInventory;
+        if (!this.loadComplete) this.changedBeforeLoad |= flag;
     }
 
+    //queues a save, writing happens later on the data store's thread together with any other pending saves
     void saveChanges() {
         if (!this.isDirty) return;
 
-        this.waitForLoadComplete();
-        this.savingThread = new Thread(new DataSaver());
-        this.savingThread.start();
+        AutomaticInventory.instance.dataStore.queueSave(this);
     }
 
-    private void waitForLoadComplete() {
-        if (this.loadingThread != null) {
-            try {
-                this.loadingThread.join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-            this.loadingThread = null;
-        }
-    }
-
-    void waitForSaveComplete() {
-        if (this.savingThread != null) {
-            try {
-                this.savingThread.join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-    }
-
-    private void writeDataToFile() {
-        try {
-            FileConfiguration config = new YamlConfiguration();
-            config.set("Player Name", this.playerName);
-            config.set("Sort Chests", this.sortChests);
-            config.set("Sort Personal Inventory", this.sortInventory);
-            config.set("Used Quick Deposit", this.usedQuickDeposit);
-            config.set("Received Messages.Personal Inventory", this.gotInventorySortInfo);
-            config.set("Received Messages.Chest Inventory", this.gotChestSortInfo);
-            config.set("Received Messages.Restacker", this.gotRestackInfo);
-            File playerFile = new File(DataStore.playerDataFolderPath + File.separator + this.playerID.toString());
-            config.save(playerFile);
-        } catch (Exception e) {
-            StringWriter errors = new StringWriter();
-            e.printStackTrace(new PrintWriter(errors));
-            AutomaticInventory.logger.severe("Failed to save player data for " + playerID + " " + errors.toString());
-        }
-
-        this.savingThread = null;
+    //takes what needs saving and marks it as saved.  called on the data store's thread
+    synchronized PlayerDataRecord takeChangesForSave() {
         this.isDirty = false;
+        return new PlayerDataRecord(this.playerID, this.playerName, this.flags);
     }
 
-    private void readDataFromFile() {
-        File playerFile = new File(DataStore.playerDataFolderPath + File.separator + this.playerID.toString());
-
-        //if it exists as a file, read the file
-        if (playerFile.exists()) {
-            boolean needRetry;
-            int retriesRemaining = 5;
-            Exception latestException = null;
-            do {
-                try {
-                    needRetry = false;
-                    FileConfiguration config = YamlConfiguration.loadConfiguration(playerFile);
-                    this.sortChests = config.getBoolean("Sort Chests", true);
-                    this.sortInventory = config.getBoolean("Sort Personal Inventory", true);
-                    this.usedQuickDeposit = config.getBoolean("Used Quick Deposit", false);
-                    this.gotChestSortInfo = config.getBoolean("Received Messages.Chest Inventory", false);
-                    this.gotInventorySortInfo = config.getBoolean("Received Messages.Personal Inventory", false);
-                    this.gotRestackInfo = config.getBoolean("Received Messages.Restacker", false);
-                }
-
-                //if there's any problem with the file's content, retry up to 5 times with 5 milliseconds between
-                catch (Exception e) {
-                    latestException = e;
-                    needRetry = true;
-                    retriesRemaining--;
-                }
-
-                try {
-                    if (needRetry) Thread.sleep(5);
-                } catch (InterruptedException exception) {
-                    exception.printStackTrace();
-                }
-
-            } while (needRetry && retriesRemaining >= 0);
-
-            //if last attempt failed, log information about the problem
-            if (needRetry) {
-                StringWriter errors = new StringWriter();
-                latestException.printStackTrace(new PrintWriter(errors));
-                AutomaticInventory.logger.severe("Failed to load data for " + playerID + " " + errors.toString());
-            }
-        }
+    //called on the data store's thread when saving failed
+    synchronized void markDirty() {
+        this.isDirty = true;
     }
 
-    private class DataSaver implements Runnable {
-        @Override
-        public void run() {
-            writeDataToFile();
-        }
+    UUID getPlayerID() {
+        return playerID;
     }
 
-    private class DataLoader implements Runnable {
-        @Override
-        public void run() {
-            readDataFromFile();
-        }
+    //called on the data store's thread once loading finished, with null when nothing was saved for this player
+    synchronized void applyLoadedRecord(PlayerDataRecord record) {
+        int loadedFlags = record == null ? DEFAULT_FLAGS : record.flags;
+        this.flags = (loadedFlags & ~this.changedBeforeLoad) | (this.flags & this.changedBeforeLoad);
+        this.loadComplete = true;
     }
-}
\ No newline at end of file
+}
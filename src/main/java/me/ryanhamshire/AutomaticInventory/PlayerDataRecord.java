@@ -0,0 +1,16 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import java.util.UUID;
+
+//what gets stored for one player.  the flags are the PlayerData bits
+class PlayerDataRecord {
+    final UUID playerID;
+    final String playerName;
+    final int flags;
+
+    PlayerDataRecord(UUID playerID, String playerName, int flags) {
+        this.playerID = playerID;
+        this.playerName = playerName;
+        this.flags = flags;
+    }
+}
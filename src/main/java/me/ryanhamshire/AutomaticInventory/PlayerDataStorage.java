@@ -0,0 +1,30 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+//a place to keep player data.  implementations are only used from the data store's I/O thread
+interface PlayerDataStorage {
+    //returns null when nothing has been saved for this player yet
+    PlayerDataRecord load(UUID playerID) throws IOException;
+
+    //players without saved data are left out of the result
+    default Map<UUID, PlayerDataRecord> loadAll(Collection<UUID> playerIDs) throws IOException {
+        Map<UUID, PlayerDataRecord> records = new HashMap<>();
+        for (UUID playerID : playerIDs) {
+            PlayerDataRecord record = this.load(playerID);
+            if (record != null) records.put(playerID, record);
+        }
+
+        return records;
+    }
+
+    boolean isEmpty() throws IOException;
+
+    void save(Collection<PlayerDataRecord> records) throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,221 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import me.ryanhamshire.AutomaticInventory.api.AccessRegionProvider;
+import me.ryanhamshire.AutomaticInventory.core.DepositPlanner;
+import me.ryanhamshire.AutomaticInventory.core.DepositTransferPlan;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+
+//deposits a player's items into the chests a /depositall search found, in three stages:
+//the chests are access checked and snapshotted on the main thread, a scan thread works out every transfer from the snapshots,
+//and then the main thread applies them chest by chest.  each tick only works for the configured time budget
+class QuickDepositChain extends BukkitRunnable {
+    private enum Stage { COLLECTING, PLANNING, APPLYING }
+
+    private Queue<Location> remainingChestLocations;
+    private DepositRecord runningDepositRecord;
+    private Player player;
+    private boolean respectExclusions;
+
+    private Stage stage = Stage.COLLECTING;
+    private final List<TargetChest> targetChests = new ArrayList<>();
+    private final Set<Location> collectedInventoryLocations = new HashSet<>();
+    //access check results for the rest of the chain, by region where a provider reports one and vouches for every listener.
+    //each block is only collected once, so blocks without a region are simply checked as they come
+    private final AccessRegionProvider regionProvider = Bukkit.getServicesManager().load(AccessRegionProvider.class);
+    private final Map<Object, Boolean> regionAccess = new HashMap<>();
+    private ItemStackSlots playerSnapshot;
+    private Callable<DepositTransferPlan> planner;
+    //null until the planner has been accepted by the scan queue
+    private Future<DepositTransferPlan> pendingPlan;
+    //null when planning failed, in which case every chest takes the live path
+    private DepositTransferPlan plan;
+    private int nextChestIndex = 0;
+
+    QuickDepositChain(Queue<Location> remainingChestLocations, DepositRecord runningDepositRecord, Player player, boolean respectExclusions) {
+        super();
+        this.remainingChestLocations = remainingChestLocations;
+        this.runningDepositRecord = runningDepositRecord;
+        this.player = player;
+        this.respectExclusions = respectExclusions;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        this.step(start + AutomaticInventory.instance.config_depositAllTickBudgetNanos);
+        Metrics.depositAllStep.record(System.nanoTime() - start);
+    }
+
+    private void step(long deadline) {
+        if (this.stage == Stage.COLLECTING) {
+            do {
+                Location chestLocation = this.remainingChestLocations.poll();
+                if (chestLocation == null) {
+                    this.startPlanning();
+                    return;
+                }
+
+                this.collect(chestLocation);
+            } while (System.nanoTime() - deadline < 0);
+        } else if (this.stage == Stage.PLANNING) {
+            if (this.pendingPlan == null) this.submitPlanner();
+            if (this.pendingPlan == null || !this.pendingPlan.isDone()) return;
+
+            try {
+                this.plan = this.pendingPlan.get();
+            } catch (InterruptedException | ExecutionException e) {
+                AutomaticInventory.logger.log(Level.WARNING, "Unable to plan deposits for " + this.player.getName() + ", depositing directly instead.", e);
+                this.plan = null;
+            }
+            this.stage = Stage.APPLYING;
+        }
+
+        if (this.stage != Stage.APPLYING) return;
+
+        do {
+            if (this.nextChestIndex == this.targetChests.size()) {
+                this.finish();
+                return;
+            }
+
+            this.apply(this.nextChestIndex++);
+        } while (System.nanoTime() - deadline < 0);
+    }
+
+    //checks the player may open the chest, then remembers it along with a snapshot of its contents
+    private void collect(Location chestLocation) {
+        Block block = chestLocation.getBlock();
+        BlockState state = block.getState();
+        if (!(state instanceof InventoryHolder)) return;
+
+        Inventory chestInventory = ((InventoryHolder) state).getInventory();
+        if (this.respectExclusions && !AIEventHandler.isSortableChestInventory(chestInventory)) return;
+
+        //both halves of a double chest share one inventory, so the second half needs no access check
+        Location inventoryLocation = chestInventory.getLocation();
+        if (inventoryLocation != null && this.collectedInventoryLocations.contains(inventoryLocation)) return;
+        if (!this.canAccess(block)) return;
+        if (inventoryLocation != null) this.collectedInventoryLocations.add(inventoryLocation);
+
+        this.targetChests.add(new TargetChest(block, block.getType(), chestInventory, ItemStackSlots.copyOf(chestInventory, chestInventory.getSize())));
+    }
+
+    //fires the fake interact event at most once per region when the provider's regions decide access for every listener,
+    //otherwise for every block, since a region allowing one chest says nothing about a lock on the next
+    private boolean canAccess(Block block) {
+        Object regionKey = this.regionProvider == null || !this.regionProvider.decidesForAllListeners() ? null : this.regionProvider.getRegionKey(this.player, block);
+        if (regionKey != null) {
+            Boolean allowed = this.regionAccess.get(regionKey);
+            if (allowed != null) {
+                Metrics.accessChecksAvoided.increment();
+                return allowed;
+            }
+        }
+
+        PlayerInteractEvent fakeEvent = AutomaticInventory.instance.new FakePlayerInteractEvent(this.player, Action.RIGHT_CLICK_BLOCK, this.player.getInventory().getItemInMainHand(), block, BlockFace.UP);
+        Bukkit.getServer().getPluginManager().callEvent(fakeEvent);
+        Metrics.accessChecksFired.increment();
+        boolean allowed = !fakeEvent.isCancelled();
+        if (regionKey != null) this.regionAccess.put(regionKey, allowed);
+
+        return allowed;
+    }
+
+    private void startPlanning() {
+        if (this.targetChests.isEmpty()) {
+            this.finish();
+            return;
+        }
+
+        this.playerSnapshot = ItemStackSlots.copyOf(this.player.getInventory(), 36);
+        List<ItemStackSlots> chestSnapshots = new ArrayList<>(this.targetChests.size());
+        for (TargetChest targetChest : this.targetChests) {
+            chestSnapshots.add(targetChest.snapshot);
+        }
+
+        ItemStackSlots playerSnapshot = this.playerSnapshot;
+        BitSet excludedTypeIds = AutomaticInventory.instance.config_noAutoDepositTypeIds;
+        this.planner = () -> DepositPlanner.plan(playerSnapshot, 9, chestSnapshots, excludedTypeIds);
+        this.stage = Stage.PLANNING;
+        this.submitPlanner();
+    }
+
+    //a full scan queue just tries again next tick, rather than depositing into every chest directly on the main thread
+    private void submitPlanner() {
+        try {
+            this.pendingPlan = AutomaticInventory.instance.scanExecutor.submitTask(this.planner);
+        } catch (RejectedExecutionException e) {
+            this.pendingPlan = null;
+        }
+    }
+
+    //applies the planned transfers for one chest if neither inventory changed since it was planned, otherwise deposits directly
+    private void apply(int chestIndex) {
+        TargetChest targetChest = this.targetChests.get(chestIndex);
+        PlayerInventory playerInventory = this.player.getInventory();
+        if (this.plan != null
+                && targetChest.block.getType() == targetChest.blockType
+                && this.playerSnapshot.matches(playerInventory, this.plan.sourceAmountsBefore[chestIndex], 9, this.playerSnapshot.size())
+                && targetChest.snapshot.matches(targetChest.inventory)) {
+            DepositTransfers.apply(playerInventory, targetChest.inventory, this.plan.transfers[chestIndex]);
+            this.runningDepositRecord.totalItems += this.plan.totals[chestIndex];
+            return;
+        }
+
+        //something changed, so find the chest again in case it was replaced
+        BlockState state = targetChest.block.getState();
+        if (state instanceof InventoryHolder) {
+            Inventory chestInventory = ((InventoryHolder) state).getInventory();
+            if (!this.respectExclusions || AIEventHandler.isSortableChestInventory(chestInventory)) {
+                DepositRecord deposits = AutomaticInventory.depositMatching(playerInventory, chestInventory, false);
+                this.runningDepositRecord.totalItems += deposits.totalItems;
+            }
+        }
+    }
+
+    private void finish() {
+        AutomaticInventory.sendMessage(this.player, Messages.SuccessfulDepositAll2, String.valueOf(this.runningDepositRecord.totalItems));
+        AutomaticInventory.instance.scanExecutor.release(this.player.getUniqueId());
+        this.cancel();
+    }
+
+    private static class TargetChest {
+        final Block block;
+        final Material blockType;
+        final Inventory inventory;
+        final ItemStackSlots snapshot;
+
+        TargetChest(Block block, Material blockType, Inventory inventory, ItemStackSlots snapshot) {
+            this.block = block;
+            this.blockType = blockType;
+            this.inventory = inventory;
+            this.snapshot = snapshot;
+        }
+    }
+}
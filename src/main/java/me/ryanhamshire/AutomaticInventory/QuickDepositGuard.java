@@ -0,0 +1,87 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+//limits how often each player may quick deposit with a token bucket, and remembers for a short while whether protection plugins
+//let them open the last container they punched, so auto clickers neither walk inventories nor fire interact events on every punch.
+//only used on the main thread
+class QuickDepositGuard {
+    private final double burst;
+    private final double tokensPerNano;
+    private final long accessTtlNanos;
+    private final Map<UUID, PlayerState> players = new HashMap<>();
+
+    QuickDepositGuard(int burst, double perSecond, long accessTtlMillis) {
+        this.burst = burst;
+        this.tokensPerNano = perSecond / 1_000_000_000D;
+        this.accessTtlNanos = accessTtlMillis * 1_000_000L;
+    }
+
+    //whether the player could quick deposit right now, without using up a token
+    boolean hasToken(Player player) {
+        return this.getState(player).refill(System.nanoTime(), this) >= 1;
+    }
+
+    void takeToken(Player player) {
+        PlayerState state = this.getState(player);
+        state.refill(System.nanoTime(), this);
+        state.tokens = Math.max(0, state.tokens - 1);
+    }
+
+    //the remembered result of the player's last access check on the block, or null if there isn't a fresh one
+    Boolean getCachedAccess(Player player, Block block) {
+        PlayerState state = this.getState(player);
+        if (state.accessWorld != block.getWorld() || state.accessBlockKey != blockKey(block)) return null;
+        if (System.nanoTime() - state.accessExpiresAt >= 0) return null;
+
+        return state.accessAllowed;
+    }
+
+    void rememberAccess(Player player, Block block, boolean allowed) {
+        if (this.accessTtlNanos <= 0) return;
+
+        PlayerState state = this.getState(player);
+        state.accessWorld = block.getWorld();
+        state.accessBlockKey = blockKey(block);
+        state.accessAllowed = allowed;
+        state.accessExpiresAt = System.nanoTime() + this.accessTtlNanos;
+    }
+
+    void forget(Player player) {
+        this.players.remove(player.getUniqueId());
+    }
+
+    private PlayerState getState(Player player) {
+        return this.players.computeIfAbsent(player.getUniqueId(), key -> new PlayerState(this.burst));
+    }
+
+    //a block's coordinates packed into one long, for telling blocks in the same world apart
+    static long blockKey(Block block) {
+        return ((long) block.getX() & 0x3FFFFFF) << 38 | ((long) block.getZ() & 0x3FFFFFF) << 12 | (block.getY() & 0xFFF);
+    }
+
+    private static class PlayerState {
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+        private World accessWorld;
+        private long accessBlockKey;
+        private boolean accessAllowed;
+        private long accessExpiresAt;
+
+        PlayerState(double tokens) {
+            this.tokens = tokens;
+        }
+
+        double refill(long now, QuickDepositGuard guard) {
+            this.tokens = Math.min(guard.burst, this.tokens + (now - this.lastRefill) * guard.tokensPerNano);
+            this.lastRefill = now;
+            return this.tokens;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+
+//refills emptied hand slots from one repeating task, reusing a refill state per player and hand instead of scheduling a task per event.
+//with a predictive threshold, the replacement slot is picked out as soon as the stack in hand runs low, and the refill after it empties
+//happens on the next tick as a single checked swap instead of a search two ticks later.  runs every tick on the main thread
+class RefillScheduler implements Runnable {
+    private static final long REFILL_DELAY_TICKS = 2;
+    private static final long STAGED_REFILL_DELAY_TICKS = 1;
+    private static final int OFF_HAND_SLOT = 40;
+
+    //0 when predictive refills are off
+    private final int predictiveThreshold;
+    private long currentTick = 0;
+    //main hand and off hand states for each player by id, until forget() is called when the player quits.
+    //each state holds its inventory, so the inventory itself couldn't be a weak key
+    private final Map<UUID, RefillState[]> states = new HashMap<>();
+    private final Queue<RefillState> pendingRefills = new ArrayDeque<>();
+
+    RefillScheduler(int predictiveThreshold) {
+        this.predictiveThreshold = predictiveThreshold;
+    }
+
+    //called whenever an item in hand was used up a little.  the stack is the one still in hand
+    void observe(PlayerInventory inventory, int slot, ItemStack stack) {
+        if (this.predictiveThreshold <= 0 || stack.getAmount() > this.predictiveThreshold) return;
+
+        RefillState state = this.getState(inventory, slot);
+        if (!state.queued) state.stage(slot, stack);
+    }
+
+    //refills the slot with a stack similar to stackToReplace once it's empty
+    void requestRefill(PlayerInventory inventory, int slot, ItemStack stackToReplace) {
+        RefillState state = this.getState(inventory, slot);
+        //the hand emptied a different slot before the last refill ran, which is rare enough for a one-off state
+        if (state.queued && state.slotToRefill != slot) state = new RefillState(inventory);
+
+        long delayTicks = state.isStagedFor(slot, stackToReplace) ? STAGED_REFILL_DELAY_TICKS : REFILL_DELAY_TICKS;
+        state.request(slot, stackToReplace, this.currentTick + delayTicks);
+        if (!state.queued) {
+            state.queued = true;
+            this.pendingRefills.add(state);
+        }
+    }
+
+    void forget(PlayerInventory inventory) {
+        RefillState[] playerStates = this.states.remove(inventory.getHolder().getUniqueId());
+        if (playerStates == null) return;
+
+        for (RefillState state : playerStates) {
+            if (state != null) state.template = null;
+        }
+    }
+
+    private RefillState getState(PlayerInventory inventory, int slot) {
+        RefillState[] playerStates = this.states.computeIfAbsent(inventory.getHolder().getUniqueId(), key -> new RefillState[2]);
+        int hand = slot == OFF_HAND_SLOT ? 1 : 0;
+        if (playerStates[hand] == null) playerStates[hand] = new RefillState(inventory);
+
+        return playerStates[hand];
+    }
+
+    @Override
+    public void run() {
+        this.currentTick++;
+        for (int i = this.pendingRefills.size(); i > 0; i--) {
+            RefillState state = this.pendingRefills.poll();
+            //forgotten since it was queued
+            if (state.template == null) {
+                state.queued = false;
+                continue;
+            }
+
+            if (state.dueTick > this.currentTick) {
+                this.pendingRefills.add(state);
+                continue;
+            }
+
+            state.queued = false;
+            long start = System.nanoTime();
+            state.refill();
+            Metrics.autoRefill.record(System.nanoTime() - start);
+        }
+    }
+
+    private static class RefillState {
+        private final PlayerInventory inventory;
+        private int slotToRefill = -1;
+        //a copy of what was in hand, only replaced when the player switches to a different item
+        private ItemStack template;
+        //where a replacement for slotToRefill was found when the stack in hand ran low, or -1
+        private int stagedSlot = -1;
+        private long dueTick;
+        private boolean queued = false;
+
+        RefillState(PlayerInventory inventory) {
+            this.inventory = inventory;
+        }
+
+        void stage(int slot, ItemStack stack) {
+            if (this.isStagedFor(slot, stack)) return;
+
+            this.slotToRefill = slot;
+            this.useTemplate(stack);
+            this.stagedSlot = this.findBestMatch(MaterialSlotIndex.of(this.inventory), false);
+        }
+
+        boolean isStagedFor(int slot, ItemStack stack) {
+            return this.stagedSlot >= 0 && this.slotToRefill == slot && this.template != null && this.template.isSimilar(stack);
+        }
+
+        void request(int slot, ItemStack stackToReplace, long dueTick) {
+            if (this.slotToRefill != slot) {
+                this.slotToRefill = slot;
+                this.stagedSlot = -1;
+            }
+            this.useTemplate(stackToReplace);
+            this.dueTick = dueTick;
+        }
+
+        private void useTemplate(ItemStack stack) {
+            if (this.template != null && this.template.isSimilar(stack)) return;
+
+            this.template = stack.clone();
+            this.stagedSlot = -1;
+        }
+
+        void refill() {
+            int stagedSlot = this.stagedSlot;
+            this.stagedSlot = -1;
+
+            ItemStack currentStack = this.inventory.getItem(this.slotToRefill);
+            if (currentStack != null) return;
+
+            //a staged slot only needs checking, not finding
+            int bestMatchSlot = -1;
+            if (stagedSlot >= 0) {
+                ItemStack stagedStack = this.inventory.getItem(stagedSlot);
+                if (stagedStack != null && stagedStack.isSimilar(this.template)) bestMatchSlot = stagedSlot;
+            }
+
+            MaterialSlotIndex index = MaterialSlotIndex.of(this.inventory);
+            if (bestMatchSlot == -1) bestMatchSlot = this.findBestMatch(index, true);
+            if (bestMatchSlot == -1) return;
+
+            this.inventory.setItem(this.slotToRefill, this.inventory.getItem(bestMatchSlot));
+            this.inventory.clear(bestMatchSlot);
+            index.update(this.slotToRefill, this.template.getType());
+            index.update(bestMatchSlot, null);
+        }
+
+        //the smallest similar stack outside the slot being refilled, or -1.  when thorough, a miss re-reads the whole inventory before giving up
+        private int findBestMatch(MaterialSlotIndex index, boolean thorough) {
+            boolean rebuilt = index.rebuildIfStale(this.inventory);
+            int bestMatchSlot = this.findBestMatch(index);
+
+            //the index only hears about changes through events
+            if (bestMatchSlot == -1 && thorough && !rebuilt) {
+                index.rebuild(this.inventory);
+                bestMatchSlot = this.findBestMatch(index);
+            }
+
+            return bestMatchSlot;
+        }
+
+        //checks only the slots the index says may hold the material, correcting the index along the way
+        private int findBestMatch(MaterialSlotIndex index) {
+            Material type = this.template.getType();
+            int bestMatchSlot = -1;
+            int bestMatchStackSize = Integer.MAX_VALUE;
+            long candidates = index.getSlots(type);
+            if (this.slotToRefill < 64) candidates &= ~(1L << this.slotToRefill);
+            while (candidates != 0) {
+                int slot = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+
+                ItemStack itemInSlot = this.inventory.getItem(slot);
+                if (itemInSlot == null || itemInSlot.getType() != type) {
+                    index.update(slot, itemInSlot == null ? null : itemInSlot.getType());
+                    continue;
+                }
+
+                if (itemInSlot.isSimilar(this.template)) {
+                    int stackSize = itemInSlot.getAmount();
+                    if (stackSize < bestMatchStackSize) {
+                        bestMatchSlot = slot;
+                        bestMatchStackSize = stackSize;
+                    }
+
+                    if (bestMatchStackSize == 1) break;
+                }
+            }
+
+            return bestMatchSlot;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//runs /depositall chest searches on a fixed pool of low priority threads, with at most one pending deposit per player
+class ScanExecutor {
+    private final ThreadPoolExecutor executor;
+    //splits each search over chunk columns when parallel search is enabled, otherwise null
+    private final ForkJoinPool searchPool;
+
+    //players with a scan queued or running, or with a deposit chain still working through its chests
+    private final Set<UUID> pendingPlayers = ConcurrentHashMap.newKeySet();
+
+    //parallelSearchThreads of zero searches each area on a single scan thread
+    ScanExecutor(int threads, int maxQueuedScans, int parallelSearchThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueuedScans), runnable -> {
+            Thread thread = new Thread(runnable, "AutomaticInventory Scan " + threadCount.incrementAndGet());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (parallelSearchThreads > 0) {
+            AtomicInteger searchThreadCount = new AtomicInteger();
+            this.searchPool = new ForkJoinPool(parallelSearchThreads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("AutomaticInventory Search " + searchThreadCount.incrementAndGet());
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }, null, false);
+        } else {
+            this.searchPool = null;
+        }
+    }
+
+    ForkJoinPool getSearchPool() {
+        return this.searchPool;
+    }
+
+    boolean isPending(UUID playerID) {
+        return this.pendingPlayers.contains(playerID);
+    }
+
+    //returns false when the queue is full.  a player stays pending until release() is called, which the scan does
+    //when it ends without starting a deposit chain and the deposit chain does when it finishes
+    boolean submit(UUID playerID, Runnable scan) {
+        if (!this.pendingPlayers.add(playerID)) return true;
+
+        try {
+            this.executor.execute(scan);
+        } catch (RejectedExecutionException e) {
+            this.release(playerID);
+            return false;
+        }
+
+        return true;
+    }
+
+    //runs follow-up work for an already pending player, such as planning its deposits.  throws RejectedExecutionException when the queue is full
+    <T> Future<T> submitTask(Callable<T> task) {
+        return this.executor.submit(task);
+    }
+
+    void release(UUID playerID) {
+        this.pendingPlayers.remove(playerID);
+    }
+
+    void shutdown() {
+        if (this.searchPool != null) this.searchPool.shutdownNow();
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                AutomaticInventory.logger.warning("Chest scans didn't finish in time, interrupting them.");
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        this.pendingPlayers.clear();
+    }
+}
@@ -0,0 +1,87 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.inventory.Inventory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//sorts inventories from one repeating task, at most once per window no matter how many events asked for a sort.
+//a container or ender chest is tracked by its InventoryKey, since every event hands out a new Inventory object for it,
+//and a player inventory by itself.
+//runs every tick on the main thread
+class SortCoalescer implements Runnable {
+    private final long windowTicks;
+    private long currentTick = 0;
+    private final Map<Object, PendingSort> pendingSorts = new LinkedHashMap<>();
+    //only kept for a window after each sort
+    private final Map<Object, Long> lastSortTicks = new HashMap<>();
+
+    SortCoalescer(long windowTicks) {
+        this.windowTicks = windowTicks;
+    }
+
+    void requestSort(Inventory inventory, int startIndex, long delayTicks) {
+        Object key = keyOf(inventory);
+        long dueTick = this.currentTick + Math.max(delayTicks, 1);
+        Long lastSortTick = this.lastSortTicks.get(key);
+        if (lastSortTick != null) dueTick = Math.max(dueTick, lastSortTick + this.windowTicks);
+
+        PendingSort pendingSort = this.pendingSorts.get(key);
+        if (pendingSort == null) {
+            this.pendingSorts.put(key, new PendingSort(inventory, startIndex, dueTick));
+            return;
+        }
+
+        //the latest Inventory object is the one most likely to still be valid when the sort runs
+        pendingSort.inventory = inventory;
+        if (dueTick < pendingSort.dueTick) pendingSort.dueTick = dueTick;
+    }
+
+    void forget(Inventory inventory) {
+        Object key = keyOf(inventory);
+        this.pendingSorts.remove(key);
+        this.lastSortTicks.remove(key);
+    }
+
+    private static Object keyOf(Inventory inventory) {
+        InventoryKey key = InventoryKey.of(inventory);
+        return key == null ? inventory : key;
+    }
+
+    @Override
+    public void run() {
+        this.currentTick++;
+
+        //sorts older than the window no longer hold anything back
+        if (this.currentTick % this.windowTicks == 0 && !this.lastSortTicks.isEmpty()) {
+            this.lastSortTicks.values().removeIf(lastSortTick -> lastSortTick + this.windowTicks <= this.currentTick);
+        }
+
+        if (this.pendingSorts.isEmpty()) return;
+
+        Iterator<Map.Entry<Object, PendingSort>> iterator = this.pendingSorts.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, PendingSort> entry = iterator.next();
+            PendingSort pendingSort = entry.getValue();
+            if (pendingSort.dueTick > this.currentTick) continue;
+
+            iterator.remove();
+            this.lastSortTicks.put(entry.getKey(), this.currentTick);
+            new InventorySorter(pendingSort.inventory, pendingSort.startIndex).run();
+        }
+    }
+
+    private static class PendingSort {
+        private Inventory inventory;
+        private final int startIndex;
+        private long dueTick;
+
+        PendingSort(Inventory inventory, int startIndex, long dueTick) {
+            this.inventory = inventory;
+            this.startIndex = startIndex;
+            this.dueTick = dueTick;
+        }
+    }
+}
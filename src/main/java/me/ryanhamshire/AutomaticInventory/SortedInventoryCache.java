@@ -0,0 +1,41 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.Chunk;
+import org.bukkit.inventory.Inventory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+//remembers an InventorySort fingerprint of each inventory's contents as they were right after sorting, so inventories which haven't changed since aren't sorted again.
+//container inventories are remembered by their block until its chunk unloads, ender chests by their owner until the owner quits,
+//and player inventories by the Inventory object itself.
+//only used on the main thread
+class SortedInventoryCache {
+    private static final Map<InventoryKey, Long> containerFingerprints = new HashMap<>();
+    private static final Map<Inventory, Long> playerFingerprints = new WeakHashMap<>();
+
+    static boolean isUnchanged(Inventory inventory, long fingerprint) {
+        InventoryKey key = InventoryKey.of(inventory);
+        Long sortedFingerprint = key == null ? playerFingerprints.get(inventory) : containerFingerprints.get(key);
+        return sortedFingerprint != null && sortedFingerprint == fingerprint;
+    }
+
+    static void remember(Inventory inventory, long fingerprint) {
+        InventoryKey key = InventoryKey.of(inventory);
+        if (key == null) playerFingerprints.put(inventory, fingerprint);
+        else containerFingerprints.put(key, fingerprint);
+    }
+
+    static void forget(Inventory inventory) {
+        InventoryKey key = InventoryKey.of(inventory);
+        if (key == null) playerFingerprints.remove(inventory);
+        else containerFingerprints.remove(key);
+    }
+
+    static void forgetChunk(Chunk chunk) {
+        if (containerFingerprints.isEmpty()) return;
+
+        containerFingerprints.keySet().removeIf(key -> key.isIn(chunk));
+    }
+}
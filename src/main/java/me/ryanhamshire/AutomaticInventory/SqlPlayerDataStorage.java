@@ -0,0 +1,130 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+//player data in an embedded SQLite database file, using the driver which ships with the server.
+//batches are written in one transaction each
+class SqlPlayerDataStorage implements PlayerDataStorage {
+    //stays well below SQLite's limit on query parameters
+    private final static int MAX_IDS_PER_QUERY = 500;
+
+    private final Connection connection;
+
+    SqlPlayerDataStorage(File file) throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+            try (Statement statement = this.connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS player_data (uuid CHAR(36) PRIMARY KEY, name VARCHAR(16), flags INTEGER NOT NULL)");
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new IOException("Unable to open " + file, e);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() throws IOException {
+        try (Statement statement = this.connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT 1 FROM player_data LIMIT 1")) {
+            return !results.next();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public PlayerDataRecord load(UUID playerID) throws IOException {
+        try (PreparedStatement statement = this.connection.prepareStatement("SELECT name, flags FROM player_data WHERE uuid = ?")) {
+            statement.setString(1, playerID.toString());
+            try (ResultSet results = statement.executeQuery()) {
+                if (!results.next()) return null;
+                return new PlayerDataRecord(playerID, results.getString(1), results.getInt(2));
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Map<UUID, PlayerDataRecord> loadAll(Collection<UUID> playerIDs) throws IOException {
+        Map<UUID, PlayerDataRecord> records = new HashMap<>();
+        List<UUID> remaining = new ArrayList<>(playerIDs);
+        try {
+            for (int start = 0; start < remaining.size(); start += MAX_IDS_PER_QUERY) {
+                List<UUID> chunk = remaining.subList(start, Math.min(start + MAX_IDS_PER_QUERY, remaining.size()));
+                StringBuilder query = new StringBuilder("SELECT uuid, name, flags FROM player_data WHERE uuid IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    query.append(i == 0 ? "?" : ", ?");
+                }
+                query.append(')');
+
+                try (PreparedStatement statement = this.connection.prepareStatement(query.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        statement.setString(i + 1, chunk.get(i).toString());
+                    }
+
+                    try (ResultSet results = statement.executeQuery()) {
+                        while (results.next()) {
+                            UUID playerID = UUID.fromString(results.getString(1));
+                            records.put(playerID, new PlayerDataRecord(playerID, results.getString(2), results.getInt(3)));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+
+        return records;
+    }
+
+    @Override
+    public void save(Collection<PlayerDataRecord> records) throws IOException {
+        if (records.isEmpty()) return;
+
+        try {
+            this.connection.setAutoCommit(false);
+            try (PreparedStatement statement = this.connection.prepareStatement("INSERT OR REPLACE INTO player_data (uuid, name, flags) VALUES (?, ?, ?)")) {
+                for (PlayerDataRecord record : records) {
+                    statement.setString(1, record.playerID.toString());
+                    statement.setString(2, record.playerName);
+                    statement.setInt(3, record.flags);
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+                this.connection.commit();
+            } catch (SQLException e) {
+                this.connection.rollback();
+                throw e;
+            } finally {
+                this.connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package me.ryanhamshire.AutomaticInventory;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+//one YAML file per player, named after the player's UUID
+class YamlPlayerDataStorage implements PlayerDataStorage {
+    private final File folder;
+
+    YamlPlayerDataStorage(File folder) {
+        this.folder = folder;
+    }
+
+    @Override
+    public PlayerDataRecord load(UUID playerID) throws IOException {
+        File playerFile = new File(this.folder, playerID.toString());
+
+        //if it exists as a file, read the file
+        if (!playerFile.exists()) return null;
+
+        boolean needRetry;
+        int retriesRemaining = 5;
+        Exception latestException = null;
+        do {
+            try {
+                needRetry = false;
+                YamlConfiguration config = new YamlConfiguration();
+                config.load(playerFile);
+                int flags = 0;
+                if (config.getBoolean("Sort Chests", true)) flags |= PlayerData.SORT_CHESTS;
+                if (config.getBoolean("Sort Personal Inventory", true)) flags |= PlayerData.SORT_INVENTORY;
+                if (config.getBoolean("Used Quick Deposit", false)) flags |= PlayerData.USED_QUICK_DEPOSIT;
+                if (config.getBoolean("Received Messages.Chest Inventory", false)) flags |= PlayerData.GOT_CHEST_SORT_INFO;
+                if (config.getBoolean("Received Messages.Personal Inventory", false)) flags |= PlayerData.GOT_INVENTORY_SORT_INFO;
+                if (config.getBoolean("Received Messages.Restacker", false)) flags |= PlayerData.GOT_RESTACK_INFO;
+                return new PlayerDataRecord(playerID, config.getString("Player Name"), flags);
+            }
+
+            //if there's any problem with the file's content, retry up to 5 times with 5 milliseconds between
+            catch (Exception e) {
+                latestException = e;
+                needRetry = true;
+                retriesRemaining--;
+            }
+
+            try {
+                if (needRetry) Thread.sleep(5);
+            } catch (InterruptedException exception) {
+                exception.printStackTrace();
+            }
+
+        } while (needRetry && retriesRemaining >= 0);
+
+        throw new IOException("Unable to read " + playerFile, latestException);
+    }
+
+    @Override
+    public void save(Collection<PlayerDataRecord> records) throws IOException {
+        for (PlayerDataRecord record : records) {
+            FileConfiguration config = new YamlConfiguration();
+            config.set("Player Name", record.playerName);
+            config.set("Sort Chests", (record.flags & PlayerData.SORT_CHESTS) != 0);
+            config.set("Sort Personal Inventory", (record.flags & PlayerData.SORT_INVENTORY) != 0);
+            config.set("Used Quick Deposit", (record.flags & PlayerData.USED_QUICK_DEPOSIT) != 0);
+            config.set("Received Messages.Personal Inventory", (record.flags & PlayerData.GOT_INVENTORY_SORT_INFO) != 0);
+            config.set("Received Messages.Chest Inventory", (record.flags & PlayerData.GOT_CHEST_SORT_INFO) != 0);
+            config.set("Received Messages.Restacker", (record.flags & PlayerData.GOT_RESTACK_INFO) != 0);
+            config.save(new File(this.folder, record.playerID.toString()));
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.listPlayers().isEmpty();
+    }
+
+    //every player which has a file, for migrating to another storage
+    List<UUID> listPlayers() {
+        List<UUID> playerIDs = new ArrayList<>();
+        String[] fileNames = this.folder.list();
+        if (fileNames == null) return playerIDs;
+
+        for (String fileName : fileNames) {
+            try {
+                playerIDs.add(UUID.fromString(fileName));
+            } catch (IllegalArgumentException ignored) {
+                //not a player file
+            }
+        }
+
+        return playerIDs;
+    }
+
+    @Override
+    public void close() {
+    }
+}
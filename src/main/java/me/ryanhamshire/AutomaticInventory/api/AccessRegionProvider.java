@@ -0,0 +1,19 @@
+package me.ryanhamshire.AutomaticInventory.api;
+
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+//lets a protection plugin tell AutomaticInventory which claim or region decides whether a player may open a block.
+//register an implementation with Bukkit's ServicesManager, and /depositall then checks access once per region instead of once per chest
+//when the provider's regions decide access for every listener
+public interface AccessRegionProvider {
+    //a key which is equal for any two blocks the player is either allowed or denied access to together, such as a claim id,
+    //or null when the provider can't tell, in which case the block is checked on its own.  called on the main thread
+    Object getRegionKey(Player player, Block block);
+
+    //true only when no other listener can deny access to a single block within a region, such as a per-chest lock from LWC or Lockette.
+    //until then /depositall still fires the interact event for every chest, so per-block protection keeps working
+    default boolean decidesForAllListeners() {
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package me.ryanhamshire.AutomaticInventory.api;
+
+//what AutomaticInventory would deposit from one snapshot into others in turn, from AutomaticInventory.planDeposit.
+//immutable and readable from any thread
+public interface DepositPlan {
+    InventorySnapshot getSource();
+
+    int getDestinationCount();
+
+    InventorySnapshot getDestination(int index);
+
+    //how many items would go into the destination
+    int getItemsMovedTo(int index);
+
+    int getTotalItems();
+}
@@ -0,0 +1,12 @@
+package me.ryanhamshire.AutomaticInventory.api;
+
+import org.bukkit.inventory.ItemStack;
+
+//an immutable copy of an inventory's contents, taken on the main thread with AutomaticInventory.snapshot and readable from any thread.
+//for player inventories only the 36 main slots are copied
+public interface InventorySnapshot {
+    int getSize();
+
+    //a copy of the stack in the slot, or null if it was empty
+    ItemStack getItem(int slot);
+}
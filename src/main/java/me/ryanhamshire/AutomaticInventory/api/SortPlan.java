@@ -0,0 +1,15 @@
+package me.ryanhamshire.AutomaticInventory.api;
+
+import org.bukkit.inventory.ItemStack;
+
+//how AutomaticInventory would sort a snapshot, from AutomaticInventory.planSort.  immutable and readable from any thread.
+//player inventories keep their hotbar as it is
+public interface SortPlan {
+    InventorySnapshot getSnapshot();
+
+    //a copy of the stack the slot would hold once sorted, or null if it would be empty
+    ItemStack getItem(int slot);
+
+    //whether sorting would move anything
+    boolean isChanged();
+}
@@ -0,0 +1,115 @@
+package me.ryanhamshire.AutomaticInventory.core;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+//ParallelChestFloodFill must find the same chests in the same order as ChestFloodFill whenever the visited cap isn't reached.
+//each case is a random layout from its own seed, so a failure can be replayed from the seed in its message
+public class ParallelChestFloodFillTest {
+    private static final int CASES = 300;
+    private static final int[] MAX_FOUND = {1, 2, 7, 40, Integer.MAX_VALUE};
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void findsTheSameChestsAsChestFloodFill() {
+        for (int seed = 0; seed < CASES; seed++) {
+            Random random = new Random(seed);
+            //widths which don't fill their last chunk column are included on purpose
+            int width = 8 + random.nextInt(57);
+            int height = 1 + random.nextInt(24);
+            RandomBlocks blocks = new RandomBlocks(random, width, height);
+            int startX = random.nextInt(width);
+            int startY = random.nextInt(height);
+            int startZ = random.nextInt(width);
+
+            for (int maxFound : MAX_FOUND) {
+                ChestFloodFill expected = new ChestFloodFill(width, height);
+                ParallelChestFloodFill actual = new ParallelChestFloodFill(pool, width, height, Integer.MAX_VALUE);
+                int expectedCount = expected.search(blocks, startX, startY, startZ, maxFound);
+                int actualCount = actual.search(blocks, startX, startY, startZ, maxFound);
+
+                String description = "seed " + seed + ", maxFound " + maxFound;
+                assertEquals(description, expectedCount, actualCount);
+                for (int i = 0; i < expectedCount; i++) {
+                    assertEquals(description + ", chest " + i + " x", expected.getFoundX(i), actual.getFoundX(i));
+                    assertEquals(description + ", chest " + i + " y", expected.getFoundY(i), actual.getFoundY(i));
+                    assertEquals(description + ", chest " + i + " z", expected.getFoundZ(i), actual.getFoundZ(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void startOutsideTheAreaFindsNothing() {
+        RandomBlocks blocks = new RandomBlocks(new Random(0), 32, 8);
+        ParallelChestFloodFill search = new ParallelChestFloodFill(pool, 32, 8, Integer.MAX_VALUE);
+        assertEquals(0, search.search(blocks, 32, 0, 0, Integer.MAX_VALUE));
+        assertEquals(0, search.search(blocks, 0, -1, 0, Integer.MAX_VALUE));
+    }
+
+    //mostly open space with walls, chests and lid blocking blocks scattered through it, and some chunk columns left unknown
+    private static class RandomBlocks implements BlockView {
+        private final int width;
+        private final int height;
+        private final int[] flags;
+
+        RandomBlocks(Random random, int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.flags = new int[width * width * height];
+
+            int columnsWide = (width + 15) >> 4;
+            boolean[] unknownColumns = new boolean[columnsWide * columnsWide];
+            for (int i = 0; i < unknownColumns.length; i++) {
+                unknownColumns[i] = random.nextInt(5) == 0;
+            }
+
+            int passableChance = 40 + random.nextInt(50);
+            for (int x = 0; x < width; x++) {
+                for (int z = 0; z < width; z++) {
+                    boolean unknown = unknownColumns[(x >> 4) + (z >> 4) * columnsWide];
+                    for (int y = 0; y < height; y++) {
+                        this.flags[this.index(x, y, z)] = unknown ? UNKNOWN : randomFlags(random, passableChance);
+                    }
+                }
+            }
+        }
+
+        private static int randomFlags(Random random, int passableChance) {
+            int roll = random.nextInt(100);
+            if (roll < 8) return CONTAINER;
+            if (roll < 10) return CONTAINER | PASSABLE;
+            if (roll < 14) return LID_BLOCKING;
+            if (roll < 16) return PASSABLE | LID_BLOCKING;
+            if (roll < 16 + passableChance * 84 / 100) return PASSABLE;
+            return 0;
+        }
+
+        private int index(int x, int y, int z) {
+            return (y * this.width + z) * this.width + x;
+        }
+
+        @Override
+        public int getFlags(int x, int y, int z) {
+            if (x < 0 || x >= this.width || z < 0 || z >= this.width || y < 0 || y >= this.height) return UNKNOWN;
+            return this.flags[this.index(x, y, z)];
+        }
+    }
+}